@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Собирает модуль бенчмарков и прогоняет выбранные бенчмарки при разном числе потоков.
+# Результаты складываются в benchmarks/results/<commit>/ в формате JSON, чтобы сравнивать коммиты между собой.
+#
+# Использование: benchmarks/run.sh [регулярное выражение JMH] [число потоков ...]
+#   benchmarks/run.sh                                  # все бенчмарки, 1 и 4 потока
+#   benchmarks/run.sh FilmServiceBenchmark 1 2 4 8     # только фильмы
+#   JMH_ARGS="-p films=1000" benchmarks/run.sh         # дополнительные параметры JMH
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+pattern="${1:-.*}"
+shift || true
+threads=("$@")
+if [ ${#threads[@]} -eq 0 ]; then
+    threads=(1 4)
+fi
+
+commit="$(git rev-parse --short HEAD 2>/dev/null || echo local)"
+results="benchmarks/results/${commit}"
+mkdir -p "${results}"
+
+mvn -B -q -f benchmarks/pom.xml package -DskipTests
+
+for t in "${threads[@]}"; do
+    java -jar benchmarks/target/benchmarks.jar "${pattern}" -t "${t}" \
+        -rf json -rff "${results}/threads-${t}.json" ${JMH_ARGS:-}
+done
+
+echo "Результаты: ${results}"
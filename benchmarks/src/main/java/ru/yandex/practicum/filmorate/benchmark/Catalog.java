@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ru.yandex.practicum.filmorate.events.BackpressurePolicy;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.events.EventProperties;
+import ru.yandex.practicum.filmorate.http.ViewVersions;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.search.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.social.FriendCounts;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.trending.TrendingFilms;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Детерминированно заполненный каталог: одинаковые параметры дают одинаковые данные при каждом запуске.
+ */
+public class Catalog {
+
+    private static final long SEED = 20240401L;
+
+    public final FilmStorage filmStorage;
+    public final UserStorage userStorage;
+    public final UserService userService;
+    public final FilmService filmService;
+    public final int films;
+    public final int users;
+    public final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    public final TrendingFilms trendingFilms = new TrendingFilms(100);
+    public final FriendCounts friendCounts = new FriendCounts();
+    public final EventPipeline eventPipeline =
+            new EventPipeline(new EventProperties(4, 8192, 256, BackpressurePolicy.BLOCK), meterRegistry);
+    public final FilmSearchIndex searchIndex = new FilmSearchIndex();
+    public final ViewVersions versions = new ViewVersions();
+
+    public Catalog(int films, int users, int likesPerFilm, int friendsPerUser) {
+        this(new InMemoryFilmStorage(), new InMemoryUserStorage(), films, users, likesPerFilm, friendsPerUser);
+    }
+
+    public Catalog(FilmStorage filmStorage, UserStorage userStorage,
+                   int films, int users, int likesPerFilm, int friendsPerUser) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.userService = new UserService(userStorage, eventPipeline, friendCounts, versions, meterRegistry);
+        eventPipeline.subscribe(trendingFilms);
+        eventPipeline.subscribe(friendCounts);
+        this.filmService = new FilmService(filmStorage, userService, eventPipeline, trendingFilms, searchIndex,
+                versions, meterRegistry);
+        this.films = films;
+        this.users = users;
+
+        Random random = new Random(SEED);
+        int[][] friends = randomFriendships(random, users, friendsPerUser);
+        List<User> newUsers = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            newUsers.add(user(i));
+        }
+        userStorage.addUsers(newUsers);
+        for (int i = 0; i < users; i++) {
+            int userId = i + 1;
+            int[] friendIds = Arrays.stream(friends[i]).filter(friendId -> friendId > userId).distinct().toArray();
+            boolean[] added = new boolean[friendIds.length];
+            Arrays.fill(added, true);
+            userStorage.updateFriends(userId, friendIds, added);
+        }
+        userStorage.getAllUsers().forEach(user -> friendCounts.set(user.getId(), user.getFriends().size()));
+        List<Film> newFilms = new ArrayList<>(films);
+        for (int i = 0; i < films; i++) {
+            newFilms.add(film(i).withLikedByUsers(
+                    IntSet.of(random.ints(random.nextInt(likesPerFilm * 2 + 1), 1, users + 1).toArray())));
+        }
+        filmStorage.addFilms(newFilms);
+        newFilms.forEach(searchIndex::index);
+    }
+
+    /**
+     * Случайный неориентированный граф, в котором у пользователя в среднем {@code degree} друзей.
+     * Списки строятся заранее, чтобы заполнение каталога не зависело от стоимости одиночных вставок.
+     */
+    private static int[][] randomFriendships(Random random, int users, int degree) {
+        int[][] friends = new int[users][];
+        int[] sizes = new int[users];
+        for (int i = 0; i < users; i++) {
+            friends[i] = new int[Math.max(4, degree + degree / 4)];
+        }
+        long edges = (long) users * degree / 2;
+        for (long edge = 0; edge < edges; edge++) {
+            int first = random.nextInt(users);
+            int second = random.nextInt(users);
+            if (first == second) {
+                continue;
+            }
+            append(friends, sizes, first, second + 1);
+            append(friends, sizes, second, first + 1);
+        }
+        for (int i = 0; i < users; i++) {
+            friends[i] = Arrays.copyOf(friends[i], sizes[i]);
+        }
+        return friends;
+    }
+
+    private static void append(int[][] lists, int[] sizes, int index, int value) {
+        if (sizes[index] == lists[index].length) {
+            lists[index] = Arrays.copyOf(lists[index], lists[index].length * 2);
+        }
+        lists[index][sizes[index]++] = value;
+    }
+
+    public static Film film(int number) {
+        return Film.builder()
+                .name("Фильм " + number)
+                .description("Описание фильма " + number)
+                .releaseDate(LocalDate.of(1950, 1, 1).plusDays(number % 25_000))
+                .duration(60 + number % 120)
+                .build();
+    }
+
+    public static User user(int number) {
+        return User.builder()
+                .email("user" + number + "@mail.ru")
+                .login("user" + number)
+                .name("Пользователь " + number)
+                .birthday(LocalDate.of(1970, 1, 1).plusDays(number % 15_000))
+                .build();
+    }
+}
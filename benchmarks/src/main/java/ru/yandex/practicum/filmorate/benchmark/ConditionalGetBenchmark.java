@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Клиенты, которые опрашивают неизменные представления: топ популярных, карточки {@code polled} фильмов
+ * и списки друзей {@code polled} пользователей.
+ * С {@code conditional=true} клиент помнит ETag каждого URL и шлет его в {@code If-None-Match},
+ * без него каждый раз получает тело целиком. После каждой итерации печатается процессорное время процесса
+ * (клиент и сервер в одной JVM) и байты тел ответов в пересчете на запрос.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ConditionalGetBenchmark {
+
+    @Param({"false", "true"})
+    public boolean conditional;
+
+    @Param({"100"})
+    public int popular;
+
+    @Param({"100"})
+    public int polled;
+
+    @Param({"10000"})
+    public int films;
+
+    @Param({"10000"})
+    public int users;
+
+    private final Map<URI, String> etags = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder bodyBytes = new LongAdder();
+    private FilmorateServer server;
+    private URI popularUri;
+    private long cpuAtStart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new FilmorateServer("memory");
+        new Catalog(server.getBean(FilmStorage.class), server.getBean(UserStorage.class), films, users, 20, 20);
+        popularUri = server.baseUri.resolve("/films/popular?count=" + popular);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        requests.reset();
+        bodyBytes.reset();
+        cpuAtStart = processCpuNanos();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finishIteration() {
+        long count = Math.max(requests.sum(), 1);
+        System.out.printf("%nCPU на запрос: %.1f мкс, тело ответа: %d байт%n",
+                (processCpuNanos() - cpuAtStart) / 1_000.0 / count, bodyBytes.sum() / count);
+    }
+
+    @Benchmark
+    public int getPopular() throws IOException, InterruptedException {
+        return get(popularUri);
+    }
+
+    @Benchmark
+    public int getFilm() throws IOException, InterruptedException {
+        return get(server.baseUri.resolve("/films/" + (ThreadLocalRandom.current().nextInt(polled) + 1)));
+    }
+
+    @Benchmark
+    public int getFriends() throws IOException, InterruptedException {
+        int userId = ThreadLocalRandom.current().nextInt(polled) + 1;
+        return get(server.baseUri.resolve("/users/" + userId + "/friends"));
+    }
+
+    private int get(URI uri) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+        String etag = etags.get(uri);
+        if (conditional && etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        HttpResponse<byte[]> response = server.client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        response.headers().firstValue("ETag").ifPresent(value -> etags.put(uri, value));
+        requests.increment();
+        bodyBytes.add(response.body().length);
+        return response.statusCode();
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+}
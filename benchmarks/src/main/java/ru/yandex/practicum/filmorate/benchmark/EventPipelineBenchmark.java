@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.events.BackpressurePolicy;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.events.EventProperties;
+import ru.yandex.practicum.filmorate.events.LikeEvent;
+import ru.yandex.practicum.filmorate.trending.TrendingFilms;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность записи лайков в тренды: прямой вызов {@link TrendingFilms#record}
+ * против публикации события в конвейер с разным числом разделов и политикой переполнения.
+ * После каждой итерации печатаются задержка обработки, размер пакетов и число отброшенных событий.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EventPipelineBenchmark {
+
+    @Param({"1", "4"})
+    public int partitions;
+
+    @Param({"block", "drop"})
+    public String backpressure;
+
+    @Param({"10000"})
+    public int films;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TrendingFilms trendingFilms;
+    private EventPipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        trendingFilms = new TrendingFilms(100);
+        pipeline = new EventPipeline(new EventProperties(partitions, 8192, 256,
+                BackpressurePolicy.valueOf(backpressure.toUpperCase())), meterRegistry);
+        pipeline.subscribe(trendingFilms);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        pipeline.flush(Duration.ofSeconds(30));
+        Timer lag = meterRegistry.get("filmorate.events.lag").timer();
+        DistributionSummary batches = meterRegistry.get("filmorate.events.batch.size").summary();
+        System.out.printf("%nlag mean=%.1f us max=%.1f us, batch mean=%.1f, dropped=%.0f%n",
+                lag.mean(TimeUnit.MICROSECONDS), lag.max(TimeUnit.MICROSECONDS), batches.mean(),
+                meterRegistry.get("filmorate.events.dropped").counter().count());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.close();
+    }
+
+    @Benchmark
+    public void recordInline() {
+        trendingFilms.record(ThreadLocalRandom.current().nextInt(films) + 1, 1);
+    }
+
+    @Benchmark
+    public boolean publishLike() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return pipeline.publish(new LikeEvent(random.nextInt(films) + 1, random.nextInt(1000) + 1, true));
+    }
+}
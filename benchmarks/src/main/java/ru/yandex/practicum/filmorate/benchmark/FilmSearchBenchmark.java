@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Задержка поиска по названиям и описаниям на синтетическом словаре, где частоты слов убывают
+ * как в естественном тексте: немногие слова встречаются почти везде, большинство — редко.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class FilmSearchBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "ка", "ро", "ми", "ла", "то", "ве", "на", "су", "ди", "по", "ре", "ша", "мо", "ту", "зе", "ля"};
+    private static final int QUERIES = 1_024;
+
+    @Param({"1000", "100000"})
+    public int films;
+
+    @Param({"20000"})
+    public int vocabulary;
+
+    private Catalog catalog;
+    private String[] words;
+    private String[] rareQueries;
+    private String[] commonQueries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new Catalog(films, 1000, 5, 0);
+        Random random = new Random(films);
+        words = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int n = i; word.length() < 6 || n > 0; n /= SYLLABLES.length) {
+                word.append(SYLLABLES[n % SYLLABLES.length]);
+            }
+            words[i] = word.toString();
+        }
+        for (Film film : catalog.filmService.getAllFilms()) {
+            catalog.filmService.updateFilm(film.withName(text(random, 2)).withDescription(text(random, 20)));
+        }
+        rareQueries = new String[QUERIES];
+        commonQueries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            rareQueries[i] = words[vocabulary / 2 + random.nextInt(vocabulary / 2)] + " "
+                    + words[vocabulary / 2 + random.nextInt(vocabulary / 2)];
+            commonQueries[i] = words[random.nextInt(10)] + " " + words[random.nextInt(10)];
+        }
+    }
+
+    @Benchmark
+    public List<Film> searchRareTerms() {
+        return catalog.filmService.searchFilms(next(rareQueries), 10);
+    }
+
+    /**
+     * Слова из первой десятки по частоте: их списки фильмов — заметная доля каталога.
+     */
+    @Benchmark
+    public List<Film> searchCommonTerms() {
+        return catalog.filmService.searchFilms(next(commonQueries), 10);
+    }
+
+    /**
+     * Недописанное последнее слово раскрывается по префиксу.
+     */
+    @Benchmark
+    public List<Film> searchPrefix() {
+        String query = next(rareQueries);
+        return catalog.filmService.searchFilms(query.substring(0, query.length() - 2), 10);
+    }
+
+    /**
+     * Как раньше делали клиенты: весь список фильмов и фильтр по вхождению слов запроса.
+     */
+    @Benchmark
+    public List<Film> searchByFullScan() {
+        String[] terms = next(rareQueries).split(" ");
+        return catalog.filmService.getAllFilms().stream()
+                .filter(film -> {
+                    String text = (film.getName() + " " + film.getDescription()).toLowerCase(Locale.ROOT);
+                    for (String term : terms) {
+                        if (text.contains(term)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                })
+                .limit(10)
+                .collect(Collectors.toList());
+    }
+
+    private String text(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            double skewed = Math.pow(random.nextDouble(), 4);
+            text.append(i == 0 ? "" : " ").append(words[(int) (skewed * vocabulary)]);
+        }
+        return text.toString();
+    }
+
+    private static String next(String[] queries) {
+        return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+    }
+}
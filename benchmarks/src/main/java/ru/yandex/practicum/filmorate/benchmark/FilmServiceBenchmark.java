@@ -0,0 +1,200 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.trending.TrendingWindow;
+import ru.yandex.practicum.filmorate.util.IntCounter;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilmServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int films;
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"20"})
+    public int likesPerFilm;
+
+    private Catalog catalog;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new Catalog(films, users, likesPerFilm, 0);
+        Random random = new Random(films);
+        for (int filmId = 1; filmId <= films; filmId++) {
+            int likes = random.nextInt(likesPerFilm * 2 + 1);
+            for (int i = 0; i < likes; i++) {
+                catalog.trendingFilms.record(filmId, 1);
+            }
+        }
+        catalog.trendingFilms.refresh();
+    }
+
+    @Benchmark
+    public List<Film> getMostLikedFilms() {
+        return catalog.filmService.getMostLikedFilms(10);
+    }
+
+    @Benchmark
+    public List<Film> getTrendingFilms() {
+        return catalog.filmService.getTrendingFilms(TrendingWindow.DAY, 10);
+    }
+
+    /**
+     * Фоновый пересчет топов всех окон, когда лайки за неделю есть у каждого фильма.
+     */
+    @Benchmark
+    public void refreshTrending() {
+        catalog.trendingFilms.refresh();
+    }
+
+    /**
+     * Фильмы за случайный год: около 1,5% каталога.
+     */
+    @Benchmark
+    public List<Film> findFilmsByReleaseYear() {
+        return catalog.filmService.findFilms(randomYear(), 0, 100);
+    }
+
+    /**
+     * Год и продолжительность от 90 до 100 минут: кандидаты берутся из меньшего диапазона.
+     */
+    @Benchmark
+    public List<Film> findFilmsByReleaseYearAndDuration() {
+        FilmFilter year = randomYear();
+        return catalog.filmService.findFilms(new FilmFilter(year.releasedFrom(), year.releasedTo(), 90, 100), 0, 100);
+    }
+
+    /**
+     * Тот же запрос перебором всех фильмов, как его пришлось бы делать без индексов.
+     */
+    @Benchmark
+    public List<Film> findFilmsByFullScan() {
+        FilmFilter year = randomYear();
+        FilmFilter filter = new FilmFilter(year.releasedFrom(), year.releasedTo(), 90, 100);
+        return catalog.filmService.getAllFilms().stream()
+                .filter(filter::matches)
+                .limit(100)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Film> getAllFilms() {
+        return catalog.filmService.getAllFilms();
+    }
+
+    @Benchmark
+    public Film addAndDeleteLike(LikeState state) {
+        int filmId = state.nextFilm(catalog.films);
+        catalog.filmService.addLike(filmId, state.userId);
+        return catalog.filmService.deleteLike(filmId, state.userId);
+    }
+
+    /**
+     * Рекомендации случайному пользователю; соседи по лайкам большей частью уже в кэше.
+     */
+    @Benchmark
+    public List<Film> getRecommendations() {
+        return catalog.filmService.getRecommendations(ThreadLocalRandom.current().nextInt(users) + 1, 10);
+    }
+
+    /**
+     * Лайк сбрасывает кэш соседей пользователя, так что рекомендации считаются заново по обратному индексу.
+     */
+    @Benchmark
+    public List<Film> likeAndGetRecommendations(LikeState state) {
+        int filmId = state.nextFilm(catalog.films);
+        catalog.filmService.addLike(filmId, state.userId);
+        List<Film> recommendations = catalog.filmService.getRecommendations(state.userId, 10);
+        catalog.filmService.deleteLike(filmId, state.userId);
+        return recommendations;
+    }
+
+    /**
+     * Те же рекомендации без обратного индекса: лайки пользователя и его соседей ищутся перебором всех фильмов.
+     */
+    @Benchmark
+    public int[] getRecommendationsByFullScan() {
+        int userId = ThreadLocalRandom.current().nextInt(users) + 1;
+        List<Film> all = catalog.filmStorage.getAllFilms();
+        IntCounter overlaps = new IntCounter();
+        overlaps.exclude(userId);
+        for (Film film : all) {
+            if (film.getLikedByUsers().contains(userId)) {
+                film.getLikedByUsers().forEach(overlaps::increment);
+            }
+        }
+        int[] neighbours = overlaps.top(20);
+        IntCounter scores = new IntCounter();
+        for (Film film : all) {
+            IntSet likes = film.getLikedByUsers();
+            if (likes.contains(userId)) {
+                scores.exclude(film.getId());
+                continue;
+            }
+            for (int neighbour : neighbours) {
+                if (likes.contains(neighbour)) {
+                    scores.add(film.getId(), overlaps.get(neighbour));
+                }
+            }
+        }
+        return scores.top(10);
+    }
+
+    private static FilmFilter randomYear() {
+        LocalDate from = LocalDate.of(1950 + ThreadLocalRandom.current().nextInt(65), 1, 1);
+        return new FilmFilter(from, from.plusYears(1).minusDays(1), null, null);
+    }
+
+    /**
+     * У каждого потока свой пользователь, которого нет среди заранее поставленных лайков,
+     * поэтому пара «лайк — удаление лайка» никогда не конфликтует между потоками.
+     */
+    @State(Scope.Thread)
+    public static class LikeState {
+
+        private int userId;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(FilmServiceBenchmark benchmark) {
+            int thread = benchmark.threads.getAndIncrement();
+            userId = benchmark.catalog.userStorage.addUser(Catalog.user(benchmark.users + thread)).getId();
+            cursor = thread * 7919;
+        }
+
+        int nextFilm(int films) {
+            cursor = (cursor + 1) % films;
+            return cursor + 1;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Приложение целиком на случайном порту с журналом во временном каталоге и HTTP-клиент к нему.
+ * Логи запросов отключены, чтобы измерялась обработка, а не вывод в консоль.
+ */
+public class FilmorateServer implements Closeable {
+
+    public final ServletWebServerApplicationContext context;
+    public final HttpClient client;
+    public final URI baseUri;
+    private final Path directory;
+
+    public FilmorateServer(String storage, String... properties) throws IOException {
+        directory = Files.createTempDirectory("filmorate-benchmark");
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("server.port", "0");
+        args.put("filmorate.storage.type", storage);
+        args.put("filmorate.storage.wal.directory", directory.toString());
+        args.put("logging.level.root", "WARN");
+        args.put("logging.level.org.zalando.logbook", "WARN");
+        for (String property : properties) {
+            String[] parts = property.split("=", 2);
+            args.put(parts[0], parts[1]);
+        }
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(FilmorateApplication.class)
+                .run(args.entrySet().stream()
+                        .map(arg -> "--" + arg.getKey() + "=" + arg.getValue())
+                        .toArray(String[]::new));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUri = URI.create("http://localhost:" + context.getWebServer().getPort());
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        client.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+}
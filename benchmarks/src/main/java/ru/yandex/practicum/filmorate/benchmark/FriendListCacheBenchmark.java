@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.cache.CachingUserStorage;
+import ru.yandex.practicum.filmorate.storage.film.JdbcFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.JdbcUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Списки друзей поверх JDBC-хранилища с кэшем пользователей и без него.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class FriendListCacheBenchmark {
+
+    @Param({"5000"})
+    public int users;
+
+    @Param({"50"})
+    public int friendsPerUser;
+
+    @Param({"embedded", "tcp"})
+    public String mode;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private H2Database database;
+    private Catalog catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new H2Database("friends", "tcp".equals(mode));
+        UserStorage userStorage = new JdbcUserStorage(database.jdbcTemplate);
+        if (cache) {
+            userStorage = new CachingUserStorage(userStorage, Caffeine.newBuilder().maximumSize(users).buildAsync());
+        }
+        catalog = new Catalog(new JdbcFilmStorage(database.jdbcTemplate), userStorage, 0, users, 0, friendsPerUser);
+        // измеряется установившийся режим: весь набор пользователей помещается в кэш
+        for (int id = 1; id <= users; id++) {
+            userStorage.getUserById(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<User> getFriends() {
+        return catalog.userService.getFriends(randomUser());
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends() {
+        return catalog.userService.getCommonFriends(randomUser(), randomUser());
+    }
+
+    private int randomUser() {
+        return ThreadLocalRandom.current().nextInt(catalog.users) + 1;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.Server;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.SQLException;
+
+/**
+ * База H2 в памяти со схемой приложения: встроенная или за TCP-сервером на loopback,
+ * чтобы каждый запрос был сетевым обменом, как с настоящей внешней базой.
+ * Соединения берутся из пула, как в приложении.
+ */
+public class H2Database implements Closeable {
+
+    public final String url;
+    public final DataSource dataSource;
+    public final JdbcTemplate jdbcTemplate;
+    private final Server server;
+
+    public H2Database(String name, boolean tcp) throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        if (tcp) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:%d/mem:%s;DB_CLOSE_DELAY=-1".formatted(server.getPort(), name);
+        } else {
+            server = null;
+            url = "jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1".formatted(name);
+        }
+        h2.setURL(url);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(h2);
+        HikariDataSource pool = new HikariDataSource();
+        pool.setDataSource(h2);
+        this.dataSource = pool;
+        this.jdbcTemplate = new JdbcTemplate(pool);
+    }
+
+    @Override
+    public void close() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        ((HikariDataSource) dataSource).close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.JdbcFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.JdbcUserStorage;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Импорт фильмов с лайками в H2: по одной строке на запрос против пакетной вставки.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class JdbcImportBenchmark {
+
+    @Param({"10000"})
+    public int films;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"20"})
+    public int likesPerFilm;
+
+    @Param({"embedded", "tcp"})
+    public String mode;
+
+    private H2Database database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private JdbcFilmStorage filmStorage;
+    private List<Film> catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new H2Database("import", "tcp".equals(mode));
+        jdbcTemplate = database.jdbcTemplate;
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database.dataSource));
+        filmStorage = new JdbcFilmStorage(jdbcTemplate);
+        List<User> imported = new JdbcUserStorage(jdbcTemplate)
+                .addUsers(IntStream.rangeClosed(1, users).mapToObj(Catalog::user).toList());
+        int[] userIds = imported.stream().mapToInt(User::getId).toArray();
+        Random random = new Random(films);
+        catalog = IntStream.rangeClosed(1, films)
+                .mapToObj(number -> Catalog.film(number).withLikedByUsers(
+                        IntSet.of(random.ints(likesPerFilm, 0, userIds.length).map(i -> userIds[i]).toArray())))
+                .toList();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearFilms() {
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM films");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public int addFilmOneByOne() {
+        return transactionTemplate.execute(status -> {
+            catalog.forEach(filmStorage::addFilm);
+            return catalog.size();
+        });
+    }
+
+    @Benchmark
+    public int addFilmsBatched() {
+        return transactionTemplate.execute(status -> filmStorage.addFilms(catalog).size());
+    }
+}
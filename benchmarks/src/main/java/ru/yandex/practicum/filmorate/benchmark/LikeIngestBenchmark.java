@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.BatchAction;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прием лайков через HTTP: одна и та же пачка операций отдельными PUT/DELETE и одним POST /films/likes:batch.
+ * Каждый вызов попеременно ставит и снимает все лайки пачки, так что состояние хранилища не растет.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LikeIngestBenchmark {
+
+    @Param({"1000"})
+    public int operations;
+
+    @Param({"100"})
+    public int films;
+
+    @Param({"memory", "wal"})
+    public String storage;
+
+    private FilmorateServer server;
+    private List<LikeOperation> likes;
+    private String addBody;
+    private String removeBody;
+    private boolean liked;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new FilmorateServer(storage);
+        new Catalog(server.getBean(FilmStorage.class), server.getBean(UserStorage.class), films, operations, 0, 0);
+
+        likes = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            likes.add(new LikeOperation(i % films + 1, i + 1, BatchAction.ADD));
+        }
+        ObjectMapper objectMapper = server.getBean(ObjectMapper.class);
+        addBody = batchBody(objectMapper, BatchAction.ADD);
+        removeBody = batchBody(objectMapper, BatchAction.REMOVE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Benchmark
+    public int singleRequests() throws IOException, InterruptedException {
+        liked = !liked;
+        int statuses = 0;
+        for (LikeOperation like : likes) {
+            HttpRequest request = HttpRequest.newBuilder(
+                            server.baseUri.resolve("/films/%d/like/%d".formatted(like.getFilmId(), like.getUserId())))
+                    .method(liked ? "PUT" : "DELETE", HttpRequest.BodyPublishers.noBody())
+                    .build();
+            statuses += server.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+        return statuses;
+    }
+
+    @Benchmark
+    public String batchRequest() throws IOException, InterruptedException {
+        liked = !liked;
+        HttpRequest request = HttpRequest.newBuilder(server.baseUri.resolve("/films/likes:batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(liked ? addBody : removeBody))
+                .build();
+        return server.client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private String batchBody(ObjectMapper objectMapper, BatchAction action) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(likes.stream()
+                .map(like -> new LikeOperation(like.getFilmId(), like.getUserId(), action))
+                .toList());
+    }
+}
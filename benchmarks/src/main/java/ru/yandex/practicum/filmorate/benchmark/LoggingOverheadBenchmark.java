@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Цена логирования на запрос: без логов запросов, с Logbook, пишущим все тела целиком, и с настройками
+ * из application.properties (выборка тел, обрезка, исключенные эндпоинты). Логи пишутся в файл,
+ * как в эксплуатации. Отдельно — строка фильма с большим числом лайков для логов хранилища.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LoggingOverheadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({"off", "full", "tuned"})
+        public String logging;
+
+        @Param({"1000"})
+        public int films;
+
+        @Param({"200"})
+        public int likesPerFilm;
+
+        private Path logFile;
+        private FilmorateServer server;
+        private final List<String> filmsJson = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            logFile = Files.createTempFile("filmorate-benchmark", ".log");
+            List<String> properties = new ArrayList<>(List.of(
+                    "logging.file.name=" + logFile,
+                    "logging.threshold.console=OFF"));
+            if (!"off".equals(logging)) {
+                properties.add("logging.level.org.zalando.logbook=TRACE");
+                properties.add("logging.level.ru.yandex.practicum.filmorate=INFO");
+            }
+            if ("full".equals(logging)) {
+                properties.add("logbook.write.max-body-size=-1");
+                properties.add("filmorate.logging.http.body-sample-rate=1");
+                properties.add("filmorate.logging.http.body-excluded-endpoints=");
+            }
+            server = new FilmorateServer("memory", properties.toArray(String[]::new));
+            FilmStorage filmStorage = server.getBean(FilmStorage.class);
+            new Catalog(filmStorage, server.getBean(UserStorage.class), films, 1_000, likesPerFilm, 0);
+            ObjectMapper objectMapper = server.getBean(ObjectMapper.class);
+            for (Film film : filmStorage.getAllFilms()) {
+                filmsJson.add(objectMapper.writeValueAsString(film));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            server.close();
+            Files.deleteIfExists(logFile);
+        }
+
+        private String send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            return server.client.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Entities {
+
+        @Param({"10000"})
+        public int likes;
+
+        private Film film;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            film = Film.builder()
+                    .id(1)
+                    .name("Film")
+                    .description("Description")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(120)
+                    .likedByUsers(IntSet.of(IntStream.rangeClosed(1, likes).toArray()))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public String getFilms(Application application) throws IOException, InterruptedException {
+        URI uri = application.server.baseUri.resolve("/films?limit=100");
+        return application.send(HttpRequest.newBuilder(uri));
+    }
+
+    @Benchmark
+    public String updateFilm(Application application) throws IOException, InterruptedException {
+        String film = application.filmsJson.get(ThreadLocalRandom.current().nextInt(application.films));
+        return application.send(HttpRequest.newBuilder(application.server.baseUri.resolve("/films"))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(film)));
+    }
+
+    @Benchmark
+    public String filmToString(Entities entities) {
+        return entities.film.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import ru.yandex.practicum.filmorate.metrics.MetricsConfig;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена замера времени на горячем пути: чтение фильма по id из хранилища в памяти без метрик,
+ * с записью в таймер с гистограммой прямо в коде и через прокси с {@link MetricsConfig#timedMethodsAdvisor}.
+ * Выделение памяти на вызов видно с {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    @Param({"10000"})
+    public int films;
+
+    @Param({"none", "timer", "proxy"})
+    public String metrics;
+
+    private FilmStorage filmStorage;
+    private Timer timer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        new Catalog(storage, new InMemoryUserStorage(), films, 1_000, 10, 0);
+        filmStorage = storage;
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        if (metrics.equals("timer")) {
+            timer = Timer.builder("filmorate.storage")
+                    .tags("class", "InMemoryFilmStorage", "method", "getFilmById")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        } else if (metrics.equals("proxy")) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.registerSingleton("meterRegistry", meterRegistry);
+            ProxyFactory proxyFactory = new ProxyFactory(storage);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvisor(MetricsConfig.timedMethodsAdvisor(beanFactory.getBeanProvider(MeterRegistry.class)));
+            filmStorage = (FilmStorage) proxyFactory.getProxy();
+        }
+    }
+
+    @Benchmark
+    public Film getFilmById() {
+        int id = ThreadLocalRandom.current().nextInt(films) + 1;
+        if (timer == null) {
+            return filmStorage.getFilmById(id);
+        }
+        long start = System.nanoTime();
+        try {
+            return filmStorage.getFilmById(id);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
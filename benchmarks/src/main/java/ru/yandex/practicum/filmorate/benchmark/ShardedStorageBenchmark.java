@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ShardedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.ShardedUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабирование хранилищ в памяти по числу потоков: обычное против шардированного на одной и той же смеси
+ * чтений, лайков, дружбы между шардами и добавления фильмов. Число потоков задается снаружи:
+ * {@code benchmarks/run.sh ShardedStorageBenchmark 1 2 4 8 16 32 64}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ShardedStorageBenchmark {
+
+    @Param({"memory", "sharded"})
+    public String storage;
+
+    @Param({"16"})
+    public int shards;
+
+    @Param({"100000"})
+    public int films;
+
+    @Param({"10000"})
+    public int users;
+
+    private FilmStorage filmStorage;
+    private UserStorage userStorage;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if (storage.equals("sharded")) {
+            filmStorage = new ShardedFilmStorage(shards);
+            userStorage = new ShardedUserStorage(shards);
+        } else {
+            filmStorage = new InMemoryFilmStorage();
+            userStorage = new InMemoryUserStorage();
+        }
+        new Catalog(filmStorage, userStorage, films, users, 5, 10);
+    }
+
+    @Benchmark
+    public Film getFilm() {
+        return filmStorage.getFilmById(ThreadLocalRandom.current().nextInt(films) + 1);
+    }
+
+    @Benchmark
+    public boolean toggleLike() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int filmId = random.nextInt(films) + 1;
+        int userId = random.nextInt(users) + 1;
+        return filmStorage.addLike(filmId, userId) || filmStorage.deleteLike(filmId, userId);
+    }
+
+    @Benchmark
+    public boolean toggleFriendship() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int userId = random.nextInt(users) + 1;
+        int friendId = random.nextInt(users) + 1;
+        return userStorage.addFriend(userId, friendId) || userStorage.deleteFriend(friendId, userId);
+    }
+
+    /**
+     * Добавление раз в итерацию пересоздаваемого каталога, чтобы память не росла между итерациями.
+     */
+    @Benchmark
+    public Film addFilm() {
+        Film film = Film.builder()
+                .name("Film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(ThreadLocalRandom.current().nextInt(60, 180))
+                .build();
+        return filmStorage.addFilm(film);
+    }
+}
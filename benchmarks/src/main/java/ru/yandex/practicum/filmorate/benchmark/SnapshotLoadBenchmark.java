@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.WalFilmStorage;
+import ru.yandex.practicum.filmorate.storage.wal.BinarySnapshot;
+import ru.yandex.practicum.filmorate.storage.wal.FilmSnapshotCodec;
+import ru.yandex.practicum.filmorate.storage.wal.FsyncPolicy;
+import ru.yandex.practicum.filmorate.storage.wal.JsonSnapshot;
+import ru.yandex.practicum.filmorate.storage.wal.WalProperties;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Время старта хранилища с журналом: загрузка снимка фильмов в JSON и в двоичном формате.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SnapshotLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int films;
+
+    @Param({"20"})
+    public int likesPerFilm;
+
+    @Param({"json", "binary"})
+    public String format;
+
+    @Param({"0"})
+    public int loadThreads;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private Path directory;
+    private WalProperties properties;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        properties = new WalProperties(directory, FsyncPolicy.NONE, Duration.ofMillis(50), 1024, 0, loadThreads);
+        Random random = new Random(films);
+        Iterator<Film> catalog = IntStream.rangeClosed(1, films)
+                .mapToObj(number -> Catalog.film(number).toBuilder()
+                        .id(number)
+                        .likedByUsers(IntSet.of(random.ints(likesPerFilm, 1, 100_000).toArray()))
+                        .build())
+                .iterator();
+        if ("json".equals(format)) {
+            JsonSnapshot.write(objectMapper, directory.resolve("films.snapshot.json"), 0, catalog);
+        } else {
+            new BinarySnapshot<>(new FilmSnapshotCodec()).write(directory.resolve("films.snapshot"), 0, catalog);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int startup() throws IOException {
+        try (WalFilmStorage storage = WalFilmStorage.open(properties, objectMapper)) {
+            return storage.getPopularFilms(1).size();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    @Param({"20000"})
+    public int users;
+
+    @Param({"100", "2000"})
+    public int friendsPerUser;
+
+    @Param({"10000"})
+    public int hubFriends;
+
+    private Catalog catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new Catalog(0, users, 0, friendsPerUser);
+        Random random = new Random(users);
+        for (int hub = 1; hub <= 2; hub++) {
+            while (catalog.userStorage.getUserById(hub).getFriends().size() < hubFriends) {
+                int friendId = random.nextInt(users - 2) + 3;
+                catalog.userStorage.addFriend(hub, friendId);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<User> getFriends() {
+        return catalog.userService.getFriends(randomUser());
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends() {
+        return catalog.userService.getCommonFriends(randomUser(), randomUser());
+    }
+
+    /**
+     * Пересечение списков двух пользователей, у каждого из которых {@code hubFriends} друзей.
+     */
+    @Benchmark
+    public List<User> getCommonFriendsOfHubs() {
+        return catalog.userService.getCommonFriends(1, 2);
+    }
+
+    /**
+     * Цель по задержке: до 2 мс при 100 друзьях, до 30 мс при тысячах друзей у пользователя и у его друзей.
+     */
+    @Benchmark
+    public List<User> getFriendSuggestions() {
+        return catalog.userService.getFriendSuggestions(randomUser(), 10);
+    }
+
+    /**
+     * Рекомендации пользователю с {@code hubFriends} друзьями; обход упирается в ограничение на число связей,
+     * цель по задержке та же — до 30 мс.
+     */
+    @Benchmark
+    public List<User> getFriendSuggestionsOfHub() {
+        return catalog.userService.getFriendSuggestions(1, 10);
+    }
+
+    @Benchmark
+    public List<User> getAllUsers() {
+        return catalog.userService.getAllUsers();
+    }
+
+    private int randomUser() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+}
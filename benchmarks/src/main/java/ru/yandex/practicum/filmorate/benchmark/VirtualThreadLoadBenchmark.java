@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Нагрузка на приложение через HTTP с потоками Tomcat из пула платформенных потоков и с виртуальными потоками.
+ * Клиентов больше, чем потоков в пуле Tomcat, а хранилище блокирующее: журнал с fsync на каждый коммит
+ * или H2 за TCP-сервером. Режим SampleTime дает перцентили задержки, Throughput — пропускную способность.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(64)
+public class VirtualThreadLoadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({"false", "true"})
+        public boolean virtual;
+
+        @Param({"wal", "jdbc"})
+        public String storage;
+
+        @Param({"16"})
+        public int tomcatThreads;
+
+        @Param({"1000"})
+        public int films;
+
+        private final AtomicInteger clients = new AtomicInteger();
+        private H2Database database;
+        private FilmorateServer server;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, SQLException {
+            List<String> properties = new ArrayList<>(List.of(
+                    "spring.threads.virtual.enabled=" + virtual,
+                    "server.tomcat.threads.max=" + tomcatThreads));
+            if ("jdbc".equals(storage)) {
+                database = new H2Database("load", true);
+                properties.add("spring.datasource.url=" + database.url);
+            }
+            server = new FilmorateServer(storage, properties.toArray(String[]::new));
+            new Catalog(server.getBean(FilmStorage.class), server.getBean(UserStorage.class), films, 1_000, 0, 0);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            server.close();
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+
+    /**
+     * У каждого клиента свой пользователь: он ставит лайк случайному фильму и следующим запросом снимает его,
+     * так что запросы клиентов не конфликтуют.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private int userId;
+        private int filmId;
+        private boolean liked;
+
+        @Setup(Level.Trial)
+        public void setUp(Application application) {
+            userId = application.clients.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public int toggleLike(Application application, Client client) throws IOException, InterruptedException {
+        client.liked = !client.liked;
+        if (client.liked) {
+            client.filmId = ThreadLocalRandom.current().nextInt(application.films) + 1;
+        }
+        URI uri = application.server.baseUri.resolve("/films/%d/like/%d".formatted(client.filmId, client.userId));
+        return application.server.client.send(HttpRequest.newBuilder(uri)
+                        .method(client.liked ? "PUT" : "DELETE", HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public String getFilm(Application application) throws IOException, InterruptedException {
+        int filmId = ThreadLocalRandom.current().nextInt(application.films) + 1;
+        URI uri = application.server.baseUri.resolve("/films/" + filmId);
+        return application.server.client.send(HttpRequest.newBuilder(uri).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
@@ -1,13 +1,31 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.http.ResponseCache;
+import ru.yandex.practicum.filmorate.http.ViewVersions;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.trending.TrendingWindow;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Validated
@@ -16,11 +34,39 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FilmController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int DEFAULT_POPULAR = 10;
+
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final ViewVersions versions;
+    private final ResponseCache responseCache;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<Film> getAllFilms(@RequestParam(required = false) @PositiveOrZero Integer after,
+                                  @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                  LocalDate releasedFrom,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                  LocalDate releasedTo,
+                                  @RequestParam(required = false) @PositiveOrZero Integer minDuration,
+                                  @RequestParam(required = false) @PositiveOrZero Integer maxDuration) {
+        FilmFilter filter = new FilmFilter(releasedFrom, releasedTo, minDuration, maxDuration);
+        if (!filter.isEmpty()) {
+            return filmService.findFilms(filter, after == null ? 0 : after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+        }
+        if (after == null && limit == null) {
+            return filmService.getAllFilms();
+        }
+        return filmService.getFilms(after == null ? 0 : after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
 
-    @GetMapping
-    public List<Film> getAllFilms() {
-        return filmService.getAllFilms();
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllFilms() {
+        return NdjsonResponses.stream(objectMapper, filmService::streamFilms);
     }
 
     @PostMapping
@@ -34,8 +80,8 @@ public class FilmController {
     }
 
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable @Positive int id) {
-        return filmService.getFilmById(id);
+    public ResponseEntity<byte[]> getFilmById(@PathVariable @Positive int id, WebRequest request) {
+        return responseCache.respond(request, "film", id, versions.film(id), () -> filmService.getFilmById(id));
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -48,9 +94,30 @@ public class FilmController {
         filmService.deleteLike(id, userId);
     }
 
+    @PostMapping("/likes:batch")
+    public List<BatchResult> applyLikes(
+            @RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid @NotNull LikeOperation> operations) {
+        return filmService.applyLikes(operations);
+    }
+
     @GetMapping("/popular")
-    public List<Film> getMostLikedFilms(@RequestParam(required = false) @Positive Integer count) {
-        return filmService.getMostLikedFilms(count);
+    public ResponseEntity<byte[]> getMostLikedFilms(
+            @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer count, WebRequest request) {
+        int size = count == null ? DEFAULT_POPULAR : count;
+        return responseCache.respond(request, "popular", size, versions.popular(),
+                () -> filmService.getMostLikedFilms(size));
+    }
+
+    @GetMapping("/trending")
+    public List<Film> getTrendingFilms(@RequestParam(defaultValue = "24h") String window,
+                                       @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer count) {
+        return filmService.getTrendingFilms(TrendingWindow.of(window), count);
+    }
+
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam @NotBlank @Size(max = MAX_QUERY_LENGTH) String q,
+                                  @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer count) {
+        return filmService.searchFilms(q, count);
     }
 
 }
@@ -1,11 +1,25 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.http.ResponseCache;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendOperation;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.List;
@@ -16,11 +30,30 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int DEFAULT_POPULAR = 10;
+    private static final int DEFAULT_RECOMMENDATIONS = 10;
+
     private final UserService userService;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final ResponseCache responseCache;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<User> getAllUsers(@RequestParam(required = false) @PositiveOrZero Integer after,
+                                  @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit) {
+        if (after == null && limit == null) {
+            return userService.getAllUsers();
+        }
+        return userService.getUsers(after == null ? 0 : after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
 
-    @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return NdjsonResponses.stream(objectMapper, userService::streamUsers);
     }
 
     @PostMapping
@@ -33,11 +66,22 @@ public class UserController {
         return userService.updateUser(user);
     }
 
+    @GetMapping("/popular")
+    public List<User> getPopularUsers(@RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer count) {
+        return userService.getPopularUsers(count == null ? DEFAULT_POPULAR : count);
+    }
+
     @GetMapping("/{id}")
     public User getUserById(@PathVariable @Positive int id) {
         return userService.getUserById(id);
     }
 
+    @PostMapping("/friends:batch")
+    public List<BatchResult> applyFriendships(
+            @RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid @NotNull FriendOperation> operations) {
+        return userService.applyFriendships(operations);
+    }
+
     @PutMapping("/{userId}/friends/{friendId}")
     public User addUserToFriends(@PathVariable @Positive int userId, @PathVariable @Positive int friendId) {
         return userService.addUserToFriends(userId, friendId);
@@ -49,8 +93,9 @@ public class UserController {
     }
 
     @GetMapping("/{userId}/friends")
-    public List<User> getFriends(@PathVariable @Positive int userId) {
-        return userService.getFriends(userId);
+    public ResponseEntity<byte[]> getFriends(@PathVariable @Positive int userId, WebRequest request) {
+        return responseCache.respond(request, "friends", userId, userService.getFriendsVersion(userId),
+                () -> userService.getFriends(userId));
     }
 
     @GetMapping("/{userId}/friends/common/{otherUserId}")
@@ -58,4 +103,16 @@ public class UserController {
         return userService.getCommonFriends(userId, otherUserId);
     }
 
+    @GetMapping("/{userId}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable @Positive int userId,
+                                           @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit) {
+        return userService.getFriendSuggestions(userId, limit == null ? DEFAULT_SUGGESTIONS : limit);
+    }
+
+    @GetMapping("/{userId}/recommendations")
+    public List<Film> getRecommendations(@PathVariable @Positive int userId,
+                                         @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit) {
+        return filmService.getRecommendations(userId, limit == null ? DEFAULT_RECOMMENDATIONS : limit);
+    }
+
 }
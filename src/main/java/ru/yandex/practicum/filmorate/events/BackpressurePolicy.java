@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.events;
+
+/**
+ * Что делать с событием, когда очередь его раздела заполнена.
+ */
+public enum BackpressurePolicy {
+    /**
+     * Ждать места в очереди: запрос, изменивший данные, замедляется вместе с обработчиками.
+     */
+    BLOCK,
+    /**
+     * Отбросить событие и учесть его в метрике {@code filmorate.events.dropped}; запрос не ждет.
+     */
+    DROP
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(EventProperties.class)
+public class EventConfig {
+
+    @Bean
+    public EventPipeline eventPipeline(EventProperties properties, MeterRegistry meterRegistry) {
+        return new EventPipeline(properties, meterRegistry);
+    }
+}
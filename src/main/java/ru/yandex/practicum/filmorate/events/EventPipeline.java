@@ -0,0 +1,227 @@
+package ru.yandex.practicum.filmorate.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Внутрипроцессный конвейер событий: события раскладываются по разделам по ключу, у каждого раздела
+ * ограниченная кольцевая очередь и единственный поток-обработчик, который забирает события пакетами
+ * и отдает их подписчикам. Порядок событий с одним ключом сохраняется, переполнение очереди
+ * решается политикой {@link BackpressurePolicy}.
+ * Публикация идет под блокировкой чтения, а закрытие берет блокировку записи, поэтому после закрытия
+ * ни одно событие не попадает в очередь позже маркера остановки.
+ * Метрики: {@code filmorate.events.lag} — сколько самое старое событие пакета ждало обработки,
+ * {@code filmorate.events.batch.size}, {@code filmorate.events.queue} и {@code filmorate.events.dropped}.
+ */
+@Slf4j
+public class EventPipeline implements Closeable {
+
+    private static final Envelope CLOSE = new Envelope(null, 0);
+
+    private final Partition[] partitions;
+    private final int maxBatch;
+    private final BackpressurePolicy backpressure;
+    private final List<EventSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock publishLock = new ReentrantReadWriteLock();
+    private final Lock processedLock = new ReentrantLock();
+    private final Condition processedChanged = processedLock.newCondition();
+    private final Counter dropped;
+    private final Timer lag;
+    private final DistributionSummary batchSizes;
+    private boolean closed;
+
+    public EventPipeline(EventProperties properties, MeterRegistry meterRegistry) {
+        this.maxBatch = properties.maxBatch();
+        this.backpressure = properties.backpressure();
+        this.dropped = meterRegistry.counter("filmorate.events.dropped");
+        this.lag = Timer.builder("filmorate.events.lag")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("filmorate.events.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.partitions = new Partition[properties.partitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, properties.capacity());
+            Gauge.builder("filmorate.events.queue", partitions[i].queue, Collection::size)
+                    .tag("partition", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+    }
+
+    public void subscribe(EventSubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Ставит событие в очередь его раздела.
+     *
+     * @return false, если событие отброшено из-за переполнения очереди или закрытия конвейера
+     */
+    public boolean publish(FilmorateEvent event) {
+        Partition partition = partitions[Math.floorMod(event.partitionKey(), partitions.length)];
+        publishLock.readLock().lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            Envelope envelope = new Envelope(event, System.nanoTime());
+            if (backpressure == BackpressurePolicy.BLOCK) {
+                try {
+                    partition.queue.put(envelope);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                    return false;
+                }
+            } else if (!partition.queue.offer(envelope)) {
+                dropped.increment();
+                return false;
+            }
+            partition.published.incrementAndGet();
+            return true;
+        } finally {
+            publishLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ждет, пока подписчики обработают все события, поставленные в очередь до вызова.
+     *
+     * @return false, если не дождались за {@code timeout}
+     */
+    public boolean flush(Duration timeout) {
+        long[] targets = new long[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            targets[i] = partitions[i].published.get();
+        }
+        long remaining = timeout.toNanos();
+        processedLock.lock();
+        try {
+            for (int i = 0; i < partitions.length; i++) {
+                while (partitions[i].processed.get() < targets[i]) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = processedChanged.awaitNanos(remaining);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            processedLock.unlock();
+        }
+    }
+
+    /**
+     * Перестает принимать события и ждет, пока обработчики разберут уже поставленные.
+     */
+    @Override
+    public void close() {
+        publishLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            publishLock.writeLock().unlock();
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.queue.put(CLOSE);
+                partition.worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void dispatch(List<Envelope> batch) {
+        lag.record(System.nanoTime() - batch.getFirst().publishedNanos(), TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        List<FilmorateEvent> events = new ArrayList<>(batch.size());
+        for (Envelope envelope : batch) {
+            events.add(envelope.event());
+        }
+        for (EventSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onEvents(events);
+            } catch (RuntimeException e) {
+                log.error("Подписчик не смог обработать пакет из {} событий", events.size(), e);
+            }
+        }
+    }
+
+    private void signalProcessed() {
+        processedLock.lock();
+        try {
+            processedChanged.signalAll();
+        } finally {
+            processedLock.unlock();
+        }
+    }
+
+    private record Envelope(FilmorateEvent event, long publishedNanos) {
+    }
+
+    private final class Partition {
+
+        private final BlockingQueue<Envelope> queue;
+        private final AtomicLong published = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final Thread worker;
+
+        Partition(int number, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = new Thread(this::processLoop, "events-" + number);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        private void processLoop() {
+            List<Envelope> batch = new ArrayList<>(maxBatch);
+            boolean stop = false;
+            while (!stop) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, maxBatch - 1);
+                    stop = batch.remove(CLOSE);
+                    if (!batch.isEmpty()) {
+                        dispatch(batch);
+                    }
+                    processed.addAndGet(batch.size());
+                    signalProcessed();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stop = true;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.events;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Настройки конвейера событий, префикс {@code filmorate.events}. Нулевые и отрицательные размеры
+ * отклоняются при старте, а не приводят к пустому массиву разделов или очереди без места.
+ *
+ * @param partitions    число разделов, у каждого своя очередь и свой поток-обработчик
+ * @param capacity      сколько событий помещается в очередь одного раздела
+ * @param maxBatch      сколько событий обработчики получают одним пакетом
+ * @param backpressure  что делать с событием, если очередь раздела заполнена
+ */
+@Validated
+@ConfigurationProperties(prefix = "filmorate.events")
+public record EventProperties(
+        @DefaultValue("4") @Positive int partitions,
+        @DefaultValue("8192") @Positive int capacity,
+        @DefaultValue("256") @Positive int maxBatch,
+        @DefaultValue("block") @NotNull BackpressurePolicy backpressure) {
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.events;
+
+import java.util.List;
+
+/**
+ * Обработчик пакетов событий. Вызывается из потоков разделов, пакеты разных разделов могут приходить параллельно.
+ */
+@FunctionalInterface
+public interface EventSubscriber {
+
+    void onEvents(List<FilmorateEvent> events);
+}
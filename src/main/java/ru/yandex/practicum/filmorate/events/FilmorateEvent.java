@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.events;
+
+/**
+ * Событие об уже примененном изменении. События с одинаковым ключом раздела обрабатываются по порядку.
+ */
+public interface FilmorateEvent {
+
+    int partitionKey();
+}
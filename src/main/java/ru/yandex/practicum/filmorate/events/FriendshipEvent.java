@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.events;
+
+/**
+ * Пользователи подружились ({@code friends}) или перестали дружить. Раздел выбирается по меньшему из id,
+ * так что события одной пары пользователей обрабатываются по порядку.
+ */
+public record FriendshipEvent(int userId, int friendId, boolean friends) implements FilmorateEvent {
+
+    @Override
+    public int partitionKey() {
+        return Math.min(userId, friendId);
+    }
+}
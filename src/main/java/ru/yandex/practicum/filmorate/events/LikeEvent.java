@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.events;
+
+/**
+ * Пользователь поставил ({@code liked}) или снял лайк фильма. Раздел выбирается по фильму.
+ */
+public record LikeEvent(int filmId, int userId, boolean liked) implements FilmorateEvent {
+
+    @Override
+    public int partitionKey() {
+        return filmId;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Условные GET для часто опрашиваемых представлений и кэш их уже сериализованных тел.
+ * Сильный ETag ответа — версия представления из {@link ViewVersions} с префиксом, случайным для каждого
+ * запуска, чтобы версии, начатые заново после перезапуска, не совпали со старыми. Если клиент прислал
+ * тот же ETag в {@code If-None-Match}, отдается 304 без чтения хранилища и сериализации. Иначе тело берется
+ * из кэша, если оно сериализовано для той же версии, а устаревшее тело заменяется новым.
+ * Метрики: {@code filmorate.http.not.modified} по представлениям и статистика кэша {@code responses}.
+ */
+public class ResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Key, Body> bodies;
+    private final String instance = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    public ResponseCache(ObjectMapper objectMapper, long maximumBytes, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<Key, Body>weigher((key, body) -> body.json().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, bodies, "responses");
+    }
+
+    /**
+     * Ответ на GET представления {@code view} с параметром {@code id}, например id фильма или размером топа.
+     *
+     * @param version версия представления, прочитанная до чтения данных
+     * @param value   данные представления, читаются только если тела этой версии нет в кэше
+     * @return null, если у клиента актуальная версия: статус 304 уже выставлен
+     */
+    public ResponseEntity<byte[]> respond(WebRequest request, String view, int id, long version,
+                                          Supplier<?> value) {
+        String etag = '"' + instance + '-' + Long.toHexString(version) + '"';
+        if (request.checkNotModified(etag)) {
+            meterRegistry.counter("filmorate.http.not.modified", "view", view).increment();
+            return null;
+        }
+        Key key = new Key(view, id);
+        Body body = bodies.getIfPresent(key);
+        if (body == null || body.version() != version) {
+            body = new Body(version, serialize(value.get()));
+            bodies.put(key, body);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.json());
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Key(String view, int id) {
+    }
+
+    private record Body(long version, byte[] json) {
+    }
+}
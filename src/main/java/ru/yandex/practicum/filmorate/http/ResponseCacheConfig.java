@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Кэш ответов сериализует тем же {@link ObjectMapper}, что и конвертеры Spring MVC,
+ * поэтому тела из кэша не отличаются от обычных.
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCache responseCache(ObjectMapper objectMapper, ResponseCacheProperties properties,
+                                       MeterRegistry meterRegistry) {
+        return new ResponseCache(objectMapper, properties.maximumSize().toBytes(), meterRegistry);
+    }
+}
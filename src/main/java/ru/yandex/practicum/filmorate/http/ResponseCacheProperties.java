@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Настройки кэша готовых JSON-ответов, префикс {@code filmorate.http.response-cache}.
+ *
+ * @param maximumSize  сколько байт тел ответов держать в кэше
+ */
+@ConfigurationProperties(prefix = "filmorate.http.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("64MB") DataSize maximumSize) {
+}
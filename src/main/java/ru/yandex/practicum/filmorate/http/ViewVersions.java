@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.http;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версии фильмов, пользователей и топа популярных, по которым строятся ETag ответов.
+ * Сервисы отмечают изменение после записи в хранилище, а контроллер читает версию до чтения данных,
+ * поэтому под версией никогда не отдаются данные старше нее.
+ * Все версии берутся из одних монотонных часов, так что версия представления из нескольких сущностей —
+ * максимум их версий: любое изменение любой из них дает новый, больший максимум.
+ * Сущности, не менявшиеся с запуска, имеют версию 0. Версии живут в памяти процесса и не видят изменений,
+ * сделанных в общей базе другими экземплярами приложения.
+ */
+@Component
+public class ViewVersions {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong popular = new AtomicLong();
+    private final Map<Integer, Long> films = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> users = new ConcurrentHashMap<>();
+
+    /**
+     * Фильм добавлен или изменен, в том числе его лайки; вместе с ним меняется и топ популярных.
+     */
+    public void filmChanged(int filmId) {
+        long version = clock.incrementAndGet();
+        films.merge(filmId, version, Math::max);
+        popular.accumulateAndGet(version, Math::max);
+    }
+
+    /**
+     * Пользователь добавлен или изменен, в том числе его друзья.
+     */
+    public void userChanged(int userId) {
+        users.merge(userId, clock.incrementAndGet(), Math::max);
+    }
+
+    public long film(int filmId) {
+        return films.getOrDefault(filmId, 0L);
+    }
+
+    public long user(int userId) {
+        return users.getOrDefault(userId, 0L);
+    }
+
+    public long popular() {
+        return popular.get();
+    }
+
+    /**
+     * Версия списка друзей: в нем сами друзья вместе с их друзьями, поэтому он меняется и с дружбой
+     * пользователя, и с любым изменением кого-то из друзей.
+     */
+    public long friends(int userId, IntSet friendIds) {
+        long[] version = {user(userId)};
+        friendIds.forEach(friendId -> version[0] = Math.max(version[0], user(friendId)));
+        return version[0];
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.Strategy;
+
+/**
+ * Журнал HTTP-обменов включается уровнем TRACE для {@code org.zalando.logbook}.
+ * Тела обрезаются до {@code logbook.write.max-body-size}, выборка и исключения — в {@link SampledBodyStrategy}.
+ */
+@Configuration
+@EnableConfigurationProperties(HttpLoggingProperties.class)
+public class HttpLoggingConfig {
+
+    @Bean
+    public Strategy sampledBodyStrategy(HttpLoggingProperties properties) {
+        return new SampledBodyStrategy(properties);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Настройки журнала HTTP-обменов Logbook, префикс {@code filmorate.logging.http}.
+ *
+ * @param bodySampleRate         доля обменов, для которых пишутся тела запроса и ответа, от 0 до 1
+ * @param bodyAlwaysFromStatus   начиная с какого статуса ответа тела пишутся всегда
+ * @param bodyExcludedEndpoints  эндпоинты, тела которых не пишутся и не буферизуются:
+ *                               шаблон пути, при необходимости с методом через пробел, например {@code GET /films}
+ */
+@ConfigurationProperties(prefix = "filmorate.logging.http")
+public record HttpLoggingProperties(
+        @DefaultValue("1.0") double bodySampleRate,
+        @DefaultValue("400") int bodyAlwaysFromStatus,
+        @DefaultValue List<String> bodyExcludedEndpoints) {
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Стратегия Logbook под нагрузкой: строка запроса, статус и заголовки пишутся для каждого обмена,
+ * а тела — только для выборки обменов и для ответов с ошибкой. Тела исключенных эндпоинтов
+ * не буферизуются совсем. Запрос пишется вместе с ответом, когда уже известно, нужны ли тела.
+ */
+public class SampledBodyStrategy implements Strategy {
+
+    private final double sampleRate;
+    private final int alwaysFromStatus;
+    private final List<Endpoint> excludedEndpoints;
+
+    public SampledBodyStrategy(HttpLoggingProperties properties) {
+        this.sampleRate = properties.bodySampleRate();
+        this.alwaysFromStatus = properties.bodyAlwaysFromStatus();
+        this.excludedEndpoints = properties.bodyExcludedEndpoints().stream()
+                .map(Endpoint::parse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        return isExcluded(request) ? request.withoutBody() : request.withBody();
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        return isExcluded(request) ? response.withoutBody() : response.withBody();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request, Sink sink) {
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response, Sink sink)
+            throws IOException {
+        if (response.getStatus() >= alwaysFromStatus || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sink.writeBoth(correlation, request, response);
+        } else {
+            sink.writeBoth(correlation, request.withoutBody(), response.withoutBody());
+        }
+    }
+
+    private boolean isExcluded(HttpRequest request) {
+        if (excludedEndpoints.isEmpty()) {
+            return false;
+        }
+        PathContainer path = PathContainer.parsePath(request.getPath());
+        for (Endpoint endpoint : excludedEndpoints) {
+            if (endpoint.matches(request.getMethod(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Endpoint(String method, PathPattern pattern) {
+
+        static Endpoint parse(String endpoint) {
+            String[] parts = endpoint.trim().split("\\s+", 2);
+            return parts.length == 2
+                    ? new Endpoint(parts[0], PathPatternParser.defaultInstance.parse(parts[1]))
+                    : new Endpoint(null, PathPatternParser.defaultInstance.parse(parts[0]));
+        }
+
+        boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+        }
+    }
+}
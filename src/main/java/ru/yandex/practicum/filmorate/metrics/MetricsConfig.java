@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.aop.support.annotation.AnnotationClassFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Метрики горячих путей: время публичных методов сервисов и хранилищ, помеченных {@link Timed},
+ * и размеры каталога. Все видно в /actuator/metrics и /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Советник инфраструктурный: без AspectJ Spring Boot применяет только такие,
+     * так же как советник {@code @Transactional}.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor timedMethodsAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new DefaultPointcutAdvisor(new TimedClassesPointcut(), new TimedMethodInterceptor(meterRegistry));
+    }
+
+    @Bean
+    public MeterBinder catalogMetrics(FilmStorage filmStorage, UserStorage userStorage) {
+        return registry -> {
+            Gauge.builder("filmorate.catalog.size", filmStorage, FilmStorage::countFilms)
+                    .tag("entity", "films")
+                    .register(registry);
+            Gauge.builder("filmorate.catalog.size", userStorage, UserStorage::countUsers)
+                    .tag("entity", "users")
+                    .register(registry);
+        };
+    }
+
+    private static class TimedClassesPointcut extends StaticMethodMatcherPointcut {
+
+        TimedClassesPointcut() {
+            setClassFilter(new AnnotationClassFilter(Timed.class, true));
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеряет время методов классов, помеченных {@link Timed} (на самом классе или его интерфейсе).
+ * Таймер создается при первом вызове метода и дальше берется из кэша по классу и методу,
+ * так что замер — это два вызова nanoTime и запись в гистограмму без выделения памяти.
+ */
+public class TimedMethodInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ClassValue<Map<Method, Timer>> timers = new ClassValue<>() {
+        @Override
+        protected Map<Method, Timer> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    public TimedMethodInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Timer timer = timer(invocation.getThis().getClass(), invocation.getMethod());
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Class<?> type, Method method) {
+        Map<Method, Timer> byMethod = timers.get(type);
+        Timer timer = byMethod.get(method);
+        if (timer == null) {
+            timer = byMethod.computeIfAbsent(method, key -> register(type, key));
+        }
+        return timer;
+    }
+
+    private Timer register(Class<?> type, Method method) {
+        Timed timed = AnnotatedElementUtils.findMergedAnnotation(type, Timed.class);
+        return Timer.builder(timed.value())
+                .description(timed.description().isEmpty() ? null : timed.description())
+                .tags(timed.extraTags())
+                .tags("class", type.getSimpleName(), "method", method.getName())
+                .publishPercentileHistogram(timed.histogram())
+                .register(meterRegistry.getObject());
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Итог одной операции пакетного запроса, результаты идут в порядке операций.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+
+    public enum Status {
+        APPLIED,
+        UNCHANGED,
+        NOT_FOUND,
+        INVALID
+    }
+
+    private final Status status;
+    private final String description;
+
+    public static BatchResult of(boolean changed) {
+        return new BatchResult(changed ? Status.APPLIED : Status.UNCHANGED, null);
+    }
+}
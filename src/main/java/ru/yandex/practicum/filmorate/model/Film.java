@@ -3,32 +3,58 @@ package ru.yandex.practicum.filmorate.model;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
-import lombok.Data;
+import lombok.Builder;
+import lombok.ToString;
+import lombok.Value;
+import lombok.With;
+import lombok.extern.jackson.Jacksonized;
 import lombok.extern.slf4j.Slf4j;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.util.IntSet;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
 
+/**
+ * Фильм. Неизменяемый: хранилища отдают одну и ту же версию всем читателям, а лайки и обновления публикуют новую,
+ * поэтому изменения делаются на копии через {@code withX} или {@link #toBuilder()} и сохраняются {@code updateFilm}.
+ * Лайки всегда замороженное множество.
+ */
 @Slf4j
-@Data
+@Value
+@With
 public class Film {
-    private int id;
+    int id;
     @NotBlank(message = "Название фильма не может быть пустым")
-    private String name;
+    String name;
     @Size(max = 200, message = "Описание не может быть длиннее 200 символов")
-    private String description;
-    private LocalDate releaseDate;
+    String description;
+    LocalDate releaseDate;
     @Positive(message = "Продолжительность фильма должна быть положительной")
-    private int duration;
-    private Set<Integer> likedByUsers = new HashSet<>();
+    int duration;
+    @ToString.Exclude
+    IntSet likedByUsers;
 
-    public void setReleaseDate(LocalDate releaseDate) {
-        if (releaseDate.isBefore(LocalDate.of(1895, 12, 28))) {
+    @Builder(toBuilder = true)
+    @Jacksonized
+    private Film(int id, String name, String description, LocalDate releaseDate, int duration,
+                 IntSet likedByUsers) {
+        if (releaseDate != null && releaseDate.isBefore(LocalDate.of(1895, 12, 28))) {
             log.error("Дата релиза не может быть раньше 28 декабря 1895 года");
             throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
         }
+        this.id = id;
+        this.name = name;
+        this.description = description;
         this.releaseDate = releaseDate;
+        this.duration = duration;
+        this.likedByUsers = IntSet.frozenCopyOf(likedByUsers);
     }
-}
\ No newline at end of file
+
+    /**
+     * В логах вместо всех лайков — их число, чтобы строка фильма не росла вместе с популярностью.
+     */
+    @ToString.Include(name = "likes")
+    private int likesCount() {
+        return likedByUsers.size();
+    }
+}
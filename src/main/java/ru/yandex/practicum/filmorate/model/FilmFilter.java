@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.time.LocalDate;
+
+/**
+ * Выборка фильмов по диапазонам даты релиза и продолжительности. Границы включительные, null — граница не задана.
+ */
+public record FilmFilter(LocalDate releasedFrom, LocalDate releasedTo, Integer minDuration, Integer maxDuration) {
+
+    public boolean hasReleaseDate() {
+        return releasedFrom != null || releasedTo != null;
+    }
+
+    public boolean hasDuration() {
+        return minDuration != null || maxDuration != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasReleaseDate() && !hasDuration();
+    }
+
+    public boolean matches(Film film) {
+        if (hasReleaseDate()) {
+            LocalDate releaseDate = film.getReleaseDate();
+            if (releaseDate == null
+                    || releasedFrom != null && releaseDate.isBefore(releasedFrom)
+                    || releasedTo != null && releaseDate.isAfter(releasedTo)) {
+                return false;
+            }
+        }
+        return (minDuration == null || film.getDuration() >= minDuration)
+                && (maxDuration == null || film.getDuration() <= maxDuration);
+    }
+}
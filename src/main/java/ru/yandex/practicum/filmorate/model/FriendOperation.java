@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FriendOperation {
+    @Positive(message = "Id пользователя должен быть положительным")
+    private int userId;
+    @Positive(message = "Id друга должен быть положительным")
+    private int friendId;
+    @NotNull(message = "Действие не может быть пустым")
+    private BatchAction action;
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeOperation {
+    @Positive(message = "Id фильма должен быть положительным")
+    private int filmId;
+    @Positive(message = "Id пользователя должен быть положительным")
+    private int userId;
+    @NotNull(message = "Действие не может быть пустым")
+    private BatchAction action;
+}
@@ -3,24 +3,49 @@ package ru.yandex.practicum.filmorate.model;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.PastOrPresent;
-import lombok.Data;
-import lombok.extern.slf4j.Slf4j;
+import lombok.Builder;
+import lombok.ToString;
+import lombok.Value;
+import lombok.With;
+import lombok.extern.jackson.Jacksonized;
+import ru.yandex.practicum.filmorate.util.IntSet;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
 
-@Slf4j
-@Data
+/**
+ * Пользователь. Как и {@link Film}, неизменяемый: новые версии строятся через {@code withX} или {@link #toBuilder()}.
+ */
+@Value
+@With
 public class User {
-    private int id;
+    int id;
     @NotBlank(message = "Email не может быть пустым")
     @Email(message = "Некорректный email")
-    private String email;
+    String email;
     @NotBlank(message = "Логин не может быть пустым")
-    private String login;
-    private String name;
+    String login;
+    String name;
     @PastOrPresent(message = "Дата рождения не может быть в будущем")
-    private LocalDate birthday;
-    private Set<Integer> friends = new HashSet<>();
+    LocalDate birthday;
+    @ToString.Exclude
+    IntSet friends;
+
+    @Builder(toBuilder = true)
+    @Jacksonized
+    private User(int id, String email, String login, String name, LocalDate birthday, IntSet friends) {
+        this.id = id;
+        this.email = email;
+        this.login = login;
+        this.name = name;
+        this.birthday = birthday;
+        this.friends = IntSet.frozenCopyOf(friends);
+    }
+
+    /**
+     * В логах вместо всех друзей — их число.
+     */
+    @ToString.Include(name = "friends")
+    private int friendsCount() {
+        return friends.size();
+    }
 }
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.stream.Stream;
+
+/**
+ * Индекс поиска строится при старте по всем фильмам хранилища, дальше его обновляет {@code FilmService}.
+ */
+@Configuration
+@Slf4j
+public class FilmSearchConfig {
+
+    @Bean
+    public FilmSearchIndex filmSearchIndex(FilmStorage filmStorage) {
+        FilmSearchIndex index = new FilmSearchIndex();
+        try (Stream<Film> films = filmStorage.streamFilms()) {
+            films.forEach(index::index);
+        }
+        log.info("Построен индекс поиска, фильмов: {}", filmStorage.countFilms());
+        return index;
+    }
+}
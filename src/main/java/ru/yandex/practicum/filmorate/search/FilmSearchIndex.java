@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.search;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.IntCounter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Обратный полнотекстовый индекс по названиям и описаниям фильмов: термин — фильмы с весом его вхождений.
+ * Вхождение в название весит {@value #NAME_WEIGHT}, в описание — 1. Индекс обновляется по одному фильму
+ * под блокировкой записи, поиски идут параллельно под блокировкой чтения.
+ */
+public class FilmSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final double SATURATION = 1.2;
+    private static final int SCORE_SCALE = 1_000;
+    private static final int MAX_PREFIX_TERMS = 50;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Integer, Map<String, Integer>> filmTerms = new HashMap<>();
+
+    /**
+     * Добавляет фильм или заменяет его прежние термины, если фильм уже в индексе.
+     */
+    public void index(Film film) {
+        Map<String, Integer> terms = new HashMap<>();
+        FilmTokenizer.tokenize(film.getName()).forEach(term -> terms.merge(term, NAME_WEIGHT, Integer::sum));
+        FilmTokenizer.tokenize(film.getDescription()).forEach(term -> terms.merge(term, 1, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            Map<String, Integer> previous = filmTerms.put(film.getId(), terms);
+            if (previous != null) {
+                previous.keySet().forEach(term -> remove(term, film.getId()));
+            }
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new Postings())
+                    .add(film.getId(), weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * До {@code limit} фильмов по убыванию релевантности запросу. Релевантность — сумма по терминам запроса
+     * BM25-подобной оценки: редкость термина (idf), умноженная на вес вхождений с насыщением.
+     * Последний термин запроса ищется и как префикс, чтобы находить другие формы слова и недописанный ввод.
+     */
+    public Hits search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(FilmTokenizer.tokenize(query)));
+        IntCounter scores = new IntCounter();
+        lock.readLock().lock();
+        try {
+            int documents = filmTerms.size();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                List<Postings> matches = i < terms.size() - 1
+                        ? single(postings.get(term))
+                        : postings.subMap(term, true, term + Character.MAX_VALUE, false).values().stream()
+                        .limit(MAX_PREFIX_TERMS)
+                        .toList();
+                for (Postings match : matches) {
+                    int matched = match.weights.size();
+                    double idf = Math.log(1 + (documents - matched + 0.5) / (matched + 0.5));
+                    match.weights.forEach((filmId, weight) -> scores.add(filmId,
+                            (int) Math.round(SCORE_SCALE * idf * weight * (SATURATION + 1) / (weight + SATURATION))));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        int[] filmIds = scores.top(limit);
+        int[] filmScores = new int[filmIds.length];
+        for (int i = 0; i < filmIds.length; i++) {
+            filmScores[i] = scores.get(filmIds[i]);
+        }
+        return new Hits(filmIds, filmScores);
+    }
+
+    private void remove(String term, int filmId) {
+        Postings films = postings.get(term);
+        films.weights.remove(filmId);
+        if (films.weights.size() == 0) {
+            postings.remove(term);
+        }
+    }
+
+    private static List<Postings> single(Postings postings) {
+        return postings == null ? List.of() : List.of(postings);
+    }
+
+    /**
+     * Найденные фильмы и их текстовые оценки в том же порядке.
+     */
+    public record Hits(int[] filmIds, int[] scores) {
+    }
+
+    /**
+     * Фильмы термина и веса вхождений; число фильмов — размер счетчика, удаленный фильм из него уходит целиком.
+     */
+    private static final class Postings {
+
+        private final IntCounter weights = new IntCounter(4);
+
+        void add(int filmId, int weight) {
+            weights.add(filmId, weight);
+        }
+    }
+}
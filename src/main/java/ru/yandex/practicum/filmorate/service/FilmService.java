@@ -1,32 +1,124 @@
 package ru.yandex.practicum.filmorate.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.events.LikeEvent;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.http.ViewVersions;
+import ru.yandex.practicum.filmorate.model.BatchAction;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.search.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.trending.TrendingFilms;
+import ru.yandex.practicum.filmorate.trending.TrendingWindow;
+import ru.yandex.practicum.filmorate.util.IntCounter;
+import ru.yandex.practicum.filmorate.util.IntSet;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
+@Timed(value = "filmorate.service", histogram = true)
 public class FilmService {
 
+    private static final int MAX_NEIGHBOURS = 20;
+    private static final int MAX_SCANNED_LIKES = 1_000_000;
+    private static final long NEIGHBOURS_CACHE_SIZE = 100_000;
+    private static final Duration NEIGHBOURS_REFRESH = Duration.ofMinutes(1);
+    private static final int SEARCH_CANDIDATES = 5;
+    private static final double POPULARITY_BOOST = 0.1;
+
     private final FilmStorage filmStorage;
     private final UserService userService;
+    private final EventPipeline events;
+    private final TrendingFilms trendingFilms;
+    private final FilmSearchIndex searchIndex;
+    private final StripedLock indexLocks = new StripedLock();
+    private final ViewVersions versions;
+    private final Counter likesAdded;
+    private final Counter likesRemoved;
+    private final DistributionSummary batchSizes;
+    private final AsyncLoadingCache<Integer, Neighbours> neighbours;
+
+    public FilmService(FilmStorage filmStorage, UserService userService, EventPipeline events,
+                       TrendingFilms trendingFilms, FilmSearchIndex searchIndex, ViewVersions versions,
+                       MeterRegistry meterRegistry) {
+        this.filmStorage = filmStorage;
+        this.userService = userService;
+        this.events = events;
+        this.trendingFilms = trendingFilms;
+        this.searchIndex = searchIndex;
+        this.versions = versions;
+        this.likesAdded = meterRegistry.counter("filmorate.likes.changes", "action", "add");
+        this.likesRemoved = meterRegistry.counter("filmorate.likes.changes", "action", "remove");
+        this.batchSizes = DistributionSummary.builder("filmorate.batch.size")
+                .tag("operation", "likes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.neighbours = Caffeine.newBuilder()
+                .maximumSize(NEIGHBOURS_CACHE_SIZE)
+                .refreshAfterWrite(NEIGHBOURS_REFRESH)
+                .recordStats()
+                .buildAsync(this::findNeighbours);
+        CaffeineCacheMetrics.monitor(meterRegistry, neighbours, "recommendation-neighbours");
+    }
 
     public List<Film> getAllFilms() {
         return filmStorage.getAllFilms();
     }
 
+    public List<Film> getFilms(int afterId, int limit) {
+        return filmStorage.getFilms(afterId, limit);
+    }
+
+    public List<Film> findFilms(FilmFilter filter, int afterId, int limit) {
+        if (filter.releasedFrom() != null && filter.releasedTo() != null
+                && filter.releasedFrom().isAfter(filter.releasedTo())) {
+            throw new ValidationException("Начало диапазона дат релиза позже его конца");
+        }
+        if (filter.minDuration() != null && filter.maxDuration() != null
+                && filter.minDuration() > filter.maxDuration()) {
+            throw new ValidationException("Минимальная продолжительность больше максимальной");
+        }
+        return filmStorage.findFilms(filter, afterId, limit);
+    }
+
+    public Stream<Film> streamFilms() {
+        return filmStorage.streamFilms();
+    }
+
     public Film addFilm(Film film) {
-        return filmStorage.addFilm(film);
+        Film added = filmStorage.addFilm(film);
+        indexFilm(added.getId());
+        versions.filmChanged(added.getId());
+        return added;
     }
 
     public Film updateFilm(Film film) {
-        return filmStorage.updateFilm(film);
+        Film updated = filmStorage.updateFilm(film);
+        indexFilm(updated.getId());
+        versions.filmChanged(updated.getId());
+        return updated;
     }
 
     public Film getFilmById(int id) {
@@ -36,38 +128,180 @@ public class FilmService {
     public Film addLike(int filmId, int userId) {
         userService.getUserById(userId);
 
-        Film film = filmStorage.getFilmById(filmId);
-        Set<Integer> likedByUsers = film.getLikedByUsers();
+        filmStorage.getFilmById(filmId);
 
-        if (likedByUsers.contains(userId)) {
+        if (!filmStorage.addLike(filmId, userId)) {
             throw new ValidationException("Пользователь %d уже поставил лайк фильму %d".formatted(userId, filmId));
         }
+        likesAdded.increment();
+        versions.filmChanged(filmId);
+        events.publish(new LikeEvent(filmId, userId, true));
+        neighbours.synchronous().invalidate(userId);
 
-        likedByUsers.add(userId);
-
-        return film;
+        return filmStorage.getFilmById(filmId);
     }
 
     public Film deleteLike(int filmId, int userId) {
         userService.getUserById(userId);
 
-        Film film = filmStorage.getFilmById(filmId);
-        Set<Integer> likedByUsers = film.getLikedByUsers();
+        filmStorage.getFilmById(filmId);
 
-        if (!likedByUsers.contains(userId)) {
+        if (!filmStorage.deleteLike(filmId, userId)) {
             throw new ValidationException("Пользователь %d не ставил лайк фильму %d".formatted(userId, filmId));
         }
+        likesRemoved.increment();
+        versions.filmChanged(filmId);
+        events.publish(new LikeEvent(filmId, userId, false));
+        neighbours.synchronous().invalidate(userId);
 
-        likedByUsers.remove(userId);
+        return filmStorage.getFilmById(filmId);
+    }
 
-        return film;
+    /**
+     * Пакет лайков: фильмы и пользователи всего пакета проверяются одним обращением к хранилищам,
+     * операции группируются по фильму и применяются одним вызовом хранилища на фильм.
+     */
+    public List<BatchResult> applyLikes(List<LikeOperation> operations) {
+        IntSet filmIds = getExistingIds(operations.stream().mapToInt(LikeOperation::getFilmId).toArray());
+        IntSet userIds = userService.getExistingIds(operations.stream().mapToInt(LikeOperation::getUserId).toArray());
+        BatchResult[] results = new BatchResult[operations.size()];
+        Map<Integer, List<Integer>> byFilm = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            LikeOperation operation = operations.get(i);
+            if (!filmIds.contains(operation.getFilmId())) {
+                results[i] = new BatchResult(BatchResult.Status.NOT_FOUND,
+                        "Фильм c id %d не найден".formatted(operation.getFilmId()));
+            } else if (!userIds.contains(operation.getUserId())) {
+                results[i] = new BatchResult(BatchResult.Status.NOT_FOUND,
+                        "Пользователь c id %d не найден".formatted(operation.getUserId()));
+            } else {
+                byFilm.computeIfAbsent(operation.getFilmId(), filmId -> new ArrayList<>()).add(i);
+            }
+        }
+        byFilm.forEach((filmId, indexes) -> {
+            int[] users = new int[indexes.size()];
+            boolean[] liked = new boolean[indexes.size()];
+            for (int j = 0; j < indexes.size(); j++) {
+                LikeOperation operation = operations.get(indexes.get(j));
+                users[j] = operation.getUserId();
+                liked[j] = operation.getAction() == BatchAction.ADD;
+            }
+            boolean[] changed = filmStorage.updateLikes(filmId, users, liked);
+            boolean filmChanged = false;
+            for (int j = 0; j < indexes.size(); j++) {
+                results[indexes.get(j)] = BatchResult.of(changed[j]);
+                if (changed[j]) {
+                    filmChanged = true;
+                    (liked[j] ? likesAdded : likesRemoved).increment();
+                    events.publish(new LikeEvent(filmId, users[j], liked[j]));
+                    neighbours.synchronous().invalidate(users[j]);
+                }
+            }
+            if (filmChanged) {
+                versions.filmChanged(filmId);
+            }
+        });
+        batchSizes.record(operations.size());
+        return Arrays.asList(results);
     }
 
     public List<Film> getMostLikedFilms(Integer count) {
-        return filmStorage.getAllFilms().stream()
-                .sorted((o1, o2) -> o2.getLikedByUsers().size() - o1.getLikedByUsers().size())
-                .limit(count == null ? 10 : count)
+        return filmStorage.getPopularFilms(count == null ? 10 : count);
+    }
+
+    /**
+     * Фильмы с наибольшим приростом лайков за окно по последнему фоновому пересчету трендов.
+     */
+    public List<Film> getTrendingFilms(TrendingWindow window, Integer count) {
+        return filmStorage.getFilmsByIds(trendingFilms.getTop(window, count == null ? 10 : count));
+    }
+
+    /**
+     * Поиск по названию и описанию. Из индекса берется в {@value #SEARCH_CANDIDATES} раз больше кандидатов,
+     * чем нужно, их текстовая оценка умножается на 1 + {@value #POPULARITY_BOOST} * ln(1 + лайки),
+     * и по ней кандидаты сортируются заново.
+     */
+    public List<Film> searchFilms(String query, Integer count) {
+        int limit = count == null ? 10 : count;
+        FilmSearchIndex.Hits hits = searchIndex.search(query, limit * SEARCH_CANDIDATES);
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (int i = 0; i < hits.filmIds().length; i++) {
+            scores.put(hits.filmIds()[i], hits.scores()[i]);
+        }
+        Comparator<Film> byRank = Comparator.comparingDouble(film ->
+                scores.get(film.getId()) * (1 + POPULARITY_BOOST * Math.log1p(film.getLikedByUsers().size())));
+        return filmStorage.getFilmsByIds(hits.filmIds()).stream()
+                .sorted(byRank.reversed().thenComparingInt(Film::getId))
+                .limit(limit)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Фильмы, которые лайкнули пользователи с самыми похожими лайками, а сам пользователь еще нет.
+     * Оценка фильма — сумма похожести лайкнувших его соседей. Соседи берутся из кэша, а лайки соседей
+     * и самого пользователя читаются заново, так что только что лайкнутый фильм в выдачу не попадет.
+     */
+    public List<Film> getRecommendations(int userId, int limit) {
+        userService.getUserById(userId);
+        Neighbours similar = neighbours.get(userId).join();
+        IntCounter scores = new IntCounter();
+        filmStorage.getLikedFilmIds(userId).forEach(scores::exclude);
+        for (int i = 0; i < similar.userIds().length; i++) {
+            int similarity = similar.similarities()[i];
+            filmStorage.getLikedFilmIds(similar.userIds()[i]).forEach(filmId -> scores.add(filmId, similarity));
+        }
+        return filmStorage.getFilmsByIds(scores.top(limit));
+    }
+
+    /**
+     * До {@value #MAX_NEIGHBOURS} пользователей с наибольшим числом общих лайков — скалярным произведением
+     * разреженных векторов лайков. Считается по фильмам пользователя из обратного индекса без перебора
+     * всех пар пользователей; просматривается не больше {@value #MAX_SCANNED_LIKES} лайков.
+     * Кэш сбрасывается, когда меняются лайки самого пользователя, и обновляется в фоне раз в
+     * {@link #NEIGHBOURS_REFRESH}, чтобы учесть лайки остальных.
+     */
+    private Neighbours findNeighbours(int userId) {
+        IntCounter overlaps = new IntCounter();
+        overlaps.exclude(userId);
+        long scanned = 0;
+        for (Film film : filmStorage.getFilmsByIds(filmStorage.getLikedFilmIds(userId).toArray())) {
+            IntSet likes = film.getLikedByUsers();
+            scanned += likes.size();
+            if (scanned > MAX_SCANNED_LIKES) {
+                break;
+            }
+            likes.forEach(overlaps::increment);
+        }
+        int[] userIds = overlaps.top(MAX_NEIGHBOURS);
+        int[] similarities = new int[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            similarities[i] = overlaps.get(userIds[i]);
+        }
+        return new Neighbours(userIds, similarities);
+    }
+
+    /**
+     * Индекс обновляется уже после записи в хранилище, и два обновления одного фильма могут дойти до него
+     * в обратном порядке. Поэтому фильм индексируется под своей блокировкой и в том виде, в каком он сейчас
+     * лежит в хранилище: последний поток, прошедший блокировку, индексирует последнюю запись.
+     */
+    private void indexFilm(int filmId) {
+        Lock lock = indexLocks.get(filmId);
+        lock.lock();
+        try {
+            searchIndex.index(filmStorage.getFilmById(filmId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private IntSet getExistingIds(int[] ids) {
+        return IntSet.of(filmStorage.getFilmsByIds(IntSet.of(ids).toArray()).stream()
+                .mapToInt(Film::getId)
+                .toArray());
+    }
+
+    private record Neighbours(int[] userIds, int[] similarities) {
+    }
+
 }
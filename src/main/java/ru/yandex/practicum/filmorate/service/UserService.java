@@ -1,95 +1,224 @@
 package ru.yandex.practicum.filmorate.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.events.FriendshipEvent;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.http.ViewVersions;
+import ru.yandex.practicum.filmorate.model.BatchAction;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.FriendOperation;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.social.FriendCounts;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.IntCounter;
+import ru.yandex.practicum.filmorate.util.IntSet;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
+@Timed(value = "filmorate.service", histogram = true)
 public class UserService {
 
+    private static final int MAX_SUGGESTION_EDGES = 1_000_000;
+    private static final String SELF_FRIENDSHIP = "Пользователь %d не может дружить сам с собой";
+
     private final UserStorage userStorage;
+    private final EventPipeline eventPipeline;
+    private final FriendCounts friendCounts;
+    private final ViewVersions versions;
+    private final Counter friendshipsAdded;
+    private final Counter friendshipsRemoved;
+    private final DistributionSummary batchSizes;
+    private final DistributionSummary friendListSizes;
+
+    public UserService(UserStorage userStorage, EventPipeline eventPipeline, FriendCounts friendCounts,
+                       ViewVersions versions, MeterRegistry meterRegistry) {
+        this.userStorage = userStorage;
+        this.eventPipeline = eventPipeline;
+        this.friendCounts = friendCounts;
+        this.versions = versions;
+        this.friendshipsAdded = meterRegistry.counter("filmorate.friendships.changes", "action", "add");
+        this.friendshipsRemoved = meterRegistry.counter("filmorate.friendships.changes", "action", "remove");
+        this.batchSizes = DistributionSummary.builder("filmorate.batch.size")
+                .tag("operation", "friendships")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.friendListSizes = DistributionSummary.builder("filmorate.friends.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     public List<User> getAllUsers() {
         return userStorage.getAllUsers();
     }
 
+    public List<User> getUsers(int afterId, int limit) {
+        return userStorage.getUsers(afterId, limit);
+    }
+
+    public Stream<User> streamUsers() {
+        return userStorage.streamUsers();
+    }
+
     public User addUser(User user) {
-        return userStorage.addUser(user);
+        User added = userStorage.addUser(user);
+        versions.userChanged(added.getId());
+        return added;
     }
 
     public User updateUser(User user) {
-        return userStorage.updateUser(user);
+        User updated = userStorage.updateUser(user);
+        versions.userChanged(updated.getId());
+        return updated;
     }
 
     public User getUserById(int id) {
         return userStorage.getUserById(id);
     }
 
-    public User addUserToFriends(int userId, int friendId) {
-        User user = getUserById(userId);
-        Set<Integer> friends = user.getFriends();
+    /**
+     * Id из переданных, для которых есть пользователь; дубликаты проверяются один раз.
+     */
+    public IntSet getExistingIds(int[] ids) {
+        return IntSet.of(userStorage.getUsersByIds(IntSet.of(ids).toArray()).stream()
+                .mapToInt(User::getId)
+                .toArray());
+    }
 
-        if (friends.contains(friendId)) {
+    public User addUserToFriends(int userId, int friendId) {
+        if (userId == friendId) {
+            throw new ValidationException(SELF_FRIENDSHIP.formatted(userId));
+        }
+        if (!userStorage.addFriend(userId, friendId)) {
             throw new ValidationException("Пользователи %d и %d уже являются друзьями".formatted(userId, friendId));
         }
-
-        getUserById(userId).getFriends().add(friendId);
-        getUserById(friendId).getFriends().add(userId);
+        friendshipsAdded.increment();
+        friendshipChanged(userId, friendId, true);
         return getUserById(userId);
     }
 
     public User deleteFromFriends(int userId, int friendId) {
-        User user = getUserById(userId);
-        User friend = getUserById(friendId);
-
-        Set<Integer> userFriends = user.getFriends();
-
-        if (userFriends == null || userFriends.isEmpty()) {
-            log.warn("У пользователя {} список друзей пуст", userId);
-            return user;
-        }
-
-        if (!userFriends.contains(friendId)) {
+        if (!userStorage.deleteFriend(userId, friendId)) {
             log.warn("Пользователи {} и {} не являются друзьями", userId, friendId);
-            return user;
+        } else {
+            friendshipsRemoved.increment();
+            friendshipChanged(userId, friendId, false);
         }
-
-        userFriends.remove(friendId);
-        friend.getFriends().remove(userId);
         return getUserById(userId);
     }
 
+    /**
+     * Пакет изменений дружбы: пользователи всего пакета проверяются одним обращением к хранилищу,
+     * операции группируются по пользователю и применяются одним вызовом хранилища на пользователя.
+     */
+    public List<BatchResult> applyFriendships(List<FriendOperation> operations) {
+        IntSet userIds = getExistingIds(operations.stream()
+                .flatMapToInt(operation -> IntStream.of(operation.getUserId(), operation.getFriendId()))
+                .toArray());
+        BatchResult[] results = new BatchResult[operations.size()];
+        Map<Integer, List<Integer>> byUser = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            FriendOperation operation = operations.get(i);
+            if (operation.getUserId() == operation.getFriendId()) {
+                results[i] = new BatchResult(BatchResult.Status.INVALID,
+                        SELF_FRIENDSHIP.formatted(operation.getUserId()));
+            } else if (!userIds.contains(operation.getUserId())) {
+                results[i] = new BatchResult(BatchResult.Status.NOT_FOUND,
+                        "Пользователь c id %d не найден".formatted(operation.getUserId()));
+            } else if (!userIds.contains(operation.getFriendId())) {
+                results[i] = new BatchResult(BatchResult.Status.NOT_FOUND,
+                        "Пользователь c id %d не найден".formatted(operation.getFriendId()));
+            } else {
+                byUser.computeIfAbsent(operation.getUserId(), userId -> new ArrayList<>()).add(i);
+            }
+        }
+        byUser.forEach((userId, indexes) -> {
+            int[] friendIds = new int[indexes.size()];
+            boolean[] friends = new boolean[indexes.size()];
+            for (int j = 0; j < indexes.size(); j++) {
+                FriendOperation operation = operations.get(indexes.get(j));
+                friendIds[j] = operation.getFriendId();
+                friends[j] = operation.getAction() == BatchAction.ADD;
+            }
+            boolean[] changed = userStorage.updateFriends(userId, friendIds, friends);
+            for (int j = 0; j < indexes.size(); j++) {
+                results[indexes.get(j)] = BatchResult.of(changed[j]);
+                if (changed[j]) {
+                    (friends[j] ? friendshipsAdded : friendshipsRemoved).increment();
+                    friendshipChanged(userId, friendIds[j], friends[j]);
+                }
+            }
+        });
+        batchSizes.record(operations.size());
+        return Arrays.asList(results);
+    }
+
     public List<User> getFriends(int userId) {
-        User user = getUserById(userId);
-        Set<Integer> friends = user.getFriends();
+        List<User> friends = userStorage.getFriends(userId);
+        friendListSizes.record(friends.size());
+        return friends;
+    }
 
-        if (friends == null || friends.isEmpty()) {
-            return List.of();
-        }
+    /**
+     * Версия списка друзей для ETag; читается до самого списка.
+     */
+    public long getFriendsVersion(int userId) {
+        return versions.friends(userId, getUserById(userId).getFriends());
+    }
 
-        return friends.stream()
-                .map(this::getUserById)
-                .collect(Collectors.toList());
+    /**
+     * Пользователи с наибольшим числом друзей по модели чтения {@link FriendCounts}: она обновляется
+     * событиями и может ненадолго отставать от хранилища.
+     */
+    public List<User> getPopularUsers(int count) {
+        return userStorage.getUsersByIds(friendCounts.top(count));
     }
 
     public List<User> getCommonFriends(int userId, int otherUserId) {
-        User user = getUserById(userId);
-        User otherUser = getUserById(otherUserId);
-        Set<Integer> friends = user.getFriends();
-        Set<Integer> otherFriends = otherUser.getFriends();
-        return friends.stream()
-                .filter(otherFriends::contains)
-                .map(this::getUserById)
-                .collect(Collectors.toList());
+        return userStorage.getCommonFriends(userId, otherUserId);
+    }
+
+    /**
+     * Друзья друзей, которые еще не в друзьях, по убыванию числа общих друзей с пользователем.
+     * Друзья читаются из хранилища одним запросом, обход ограничен {@value #MAX_SUGGESTION_EDGES} связями,
+     * общие друзья считаются примитивными счетчиками, а лучшие {@code limit} отбираются кучей.
+     */
+    public List<User> getFriendSuggestions(int userId, int limit) {
+        IntSet friends = getUserById(userId).getFriends();
+        IntCounter mutualFriends = new IntCounter(Math.min(friends.size() * 16, MAX_SUGGESTION_EDGES));
+        mutualFriends.exclude(userId);
+        friends.forEach(mutualFriends::exclude);
+        IntConsumer countCandidate = mutualFriends::increment;
+        long edges = 0;
+        for (User friend : userStorage.getUsersByIds(friends.toArray())) {
+            IntSet friendsOfFriend = friend.getFriends();
+            edges += friendsOfFriend.size();
+            if (edges > MAX_SUGGESTION_EDGES) {
+                break;
+            }
+            friendsOfFriend.forEach(countCandidate);
+        }
+        return userStorage.getUsersByIds(mutualFriends.top(limit));
+    }
+
+    private void friendshipChanged(int userId, int friendId, boolean friends) {
+        versions.userChanged(userId);
+        versions.userChanged(friendId);
+        eventPipeline.publish(new FriendshipEvent(userId, friendId, friends));
     }
 
 }
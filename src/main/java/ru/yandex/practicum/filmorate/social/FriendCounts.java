@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.social;
+
+import ru.yandex.practicum.filmorate.events.EventSubscriber;
+import ru.yandex.practicum.filmorate.events.FilmorateEvent;
+import ru.yandex.practicum.filmorate.events.FriendshipEvent;
+import ru.yandex.practicum.filmorate.util.IntCounter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Число друзей каждого пользователя — модель чтения поверх конвейера событий. При старте счетчики заполняются
+ * по хранилищу, дальше каждое событие дружбы меняет счетчики обоих пользователей на единицу. События одного
+ * пользователя могут прийти из разных разделов, поэтому счетчики атомарные, а порядок их прихода не важен.
+ */
+public class FriendCounts implements EventSubscriber {
+
+    private final Map<Integer, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Задает начальное число друзей пользователя, например по хранилищу при старте.
+     */
+    public void set(int userId, int count) {
+        counter(userId).set(count);
+    }
+
+    @Override
+    public void onEvents(List<FilmorateEvent> events) {
+        for (FilmorateEvent event : events) {
+            if (event instanceof FriendshipEvent friendship) {
+                int delta = friendship.friends() ? 1 : -1;
+                counter(friendship.userId()).addAndGet(delta);
+                counter(friendship.friendId()).addAndGet(delta);
+            }
+        }
+    }
+
+    public int get(int userId) {
+        AtomicInteger count = counts.get(userId);
+        return count == null ? 0 : Math.max(count.get(), 0);
+    }
+
+    /**
+     * До {@code count} пользователей с наибольшим числом друзей, при равенстве по возрастанию id.
+     * Считается по запросу одним проходом по счетчикам с отбором кучей.
+     */
+    public int[] top(int count) {
+        IntCounter friends = new IntCounter(counts.size());
+        counts.forEach((userId, userCount) -> {
+            int value = userCount.get();
+            if (value > 0) {
+                friends.add(userId, value);
+            }
+        });
+        return friends.top(count);
+    }
+
+    private AtomicInteger counter(int userId) {
+        AtomicInteger count = counts.get(userId);
+        return count != null ? count : counts.computeIfAbsent(userId, id -> new AtomicInteger());
+    }
+}
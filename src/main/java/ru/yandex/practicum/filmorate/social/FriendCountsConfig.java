@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.social;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.stream.Stream;
+
+/**
+ * Счетчики друзей заполняются при старте по всем пользователям хранилища, дальше их обновляют события дружбы.
+ */
+@Configuration
+@Slf4j
+public class FriendCountsConfig {
+
+    @Bean
+    public FriendCounts friendCounts(UserStorage userStorage, EventPipeline eventPipeline) {
+        FriendCounts friendCounts = new FriendCounts();
+        try (Stream<User> users = userStorage.streamUsers()) {
+            users.forEach(user -> friendCounts.set(user.getId(), user.getFriends().size()));
+        }
+        eventPipeline.subscribe(friendCounts);
+        log.info("Заполнены счетчики друзей, пользователей: {}", userStorage.countUsers());
+        return friendCounts;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.support.KeyHolder;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Общие преобразования для JDBC-хранилищ.
+ */
+public final class JdbcRows {
+
+    private JdbcRows() {
+    }
+
+    public static Date toDate(LocalDate date) {
+        return date == null ? null : Date.valueOf(date);
+    }
+
+    public static LocalDate getLocalDate(ResultSet rs, String column) throws SQLException {
+        Date date = rs.getDate(column);
+        return date == null ? null : date.toLocalDate();
+    }
+
+    /**
+     * Читает колонку, собранную через ARRAY_AGG, пустая группа приходит как NULL.
+     */
+    public static IntSet getIntSet(ResultSet rs, String column) throws SQLException {
+        Array array = rs.getArray(column);
+        if (array == null) {
+            return new IntSet();
+        }
+        try {
+            Object[] values = (Object[]) array.getArray();
+            int[] ids = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                ids[i] = ((Number) values[i]).intValue();
+            }
+            return IntSet.ofSorted(ids);
+        } finally {
+            array.free();
+        }
+    }
+
+    /**
+     * Массив id для параметра {@code = ANY (?)}: один запрос вместо запроса на каждый id.
+     */
+    public static Array toSqlArray(PreparedStatement statement, int[] ids) throws SQLException {
+        return statement.getConnection().createArrayOf("INTEGER", Arrays.stream(ids).boxed().toArray());
+    }
+
+    /**
+     * Раскладывает найденные сущности в порядке запрошенных id, отсутствующие id пропускаются.
+     */
+    public static <T> List<T> inOrder(int[] ids, List<T> entities, ToIntFunction<T> idGetter) {
+        Map<Integer, T> byId = new HashMap<>(entities.size() * 2);
+        for (T entity : entities) {
+            byId.put(idGetter.applyAsInt(entity), entity);
+        }
+        List<T> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Копии сущностей с сгенерированными базой ключами пакетной вставки, в порядке вставки.
+     */
+    public static <T> List<T> withKeys(KeyHolder keyHolder, List<T> entities, WithId<T> withId) {
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != entities.size()) {
+            throw new IllegalStateException("База вернула %d ключей на %d строк".formatted(keys.size(), entities.size()));
+        }
+        List<T> result = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            result.add(withId.apply(entities.get(i), ((Number) keys.get(i).values().iterator().next()).intValue()));
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface WithId<T> {
+        T apply(T entity, int id);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Источник данных для хранилища {@code jdbc}. Автоконфигурация DataSource выключена в application.properties,
+ * поэтому остальные хранилища не поднимают пул соединений и не выполняют schema.sql. Когда этот бин есть,
+ * JdbcTemplate, менеджер транзакций и инициализация схемы настраиваются Spring Boot как обычно.
+ */
+@Configuration
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "jdbc")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class JdbcStorageConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
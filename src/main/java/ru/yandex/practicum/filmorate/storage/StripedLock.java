@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок, между которыми распределяются id сущностей.
+ * Операции над разными сущностями в большинстве случаев не конкурируют за одну блокировку.
+ */
+public class StripedLock {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final Lock[] stripes;
+    private final int mask;
+
+    public StripedLock() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StripedLock(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Lock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock get(int id) {
+        return stripes[stripeIndex(id)];
+    }
+
+    /**
+     * Захватывает блокировки двух сущностей в порядке номеров полос, поэтому встречные операции
+     * над одной и той же парой не могут взаимно заблокироваться.
+     */
+    public void lock(int firstId, int secondId) {
+        int first = stripeIndex(firstId);
+        int second = stripeIndex(secondId);
+        stripes[Math.min(first, second)].lock();
+        if (first != second) {
+            stripes[Math.max(first, second)].lock();
+        }
+    }
+
+    public void unlock(int firstId, int secondId) {
+        int first = stripeIndex(firstId);
+        int second = stripeIndex(secondId);
+        if (first != second) {
+            stripes[Math.max(first, second)].unlock();
+        }
+        stripes[Math.min(first, second)].unlock();
+    }
+
+    /**
+     * Захватывает блокировки всех сущностей по возрастанию номеров полос, каждую полосу один раз,
+     * в том же порядке, что и {@link #lock(int, int)}.
+     *
+     * @return номера захваченных полос для {@link #unlockAll(int[])}
+     */
+    public int[] lockAll(int[] ids) {
+        int[] indexes = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            indexes[i] = stripeIndex(ids[i]);
+        }
+        int[] locked = IntSet.of(indexes).toArray();
+        for (int index : locked) {
+            stripes[index].lock();
+        }
+        return locked;
+    }
+
+    public void unlockAll(int[] locked) {
+        for (int i = locked.length - 1; i >= 0; i--) {
+            stripes[locked[i]].unlock();
+        }
+    }
+
+    private int stripeIndex(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
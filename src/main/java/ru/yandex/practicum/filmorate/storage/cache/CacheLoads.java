@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Загрузка в асинхронный кэш Caffeine в вызывающем потоке. Синхронный {@code Cache.get} грузит значение
+ * внутри {@code ConcurrentHashMap.compute} под монитором, и виртуальный поток, ждущий хранилище, закрепляется
+ * за несущим. Здесь под монитором в кэш кладется только незавершенный future, а хранилище опрашивается снаружи.
+ * Если запись сбросили во время загрузки, future уже не в кэше и старое значение туда не попадет.
+ */
+final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    static <V> V get(AsyncCache<Integer, V> cache, int id, IntFunction<V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> cached = cache.get(id, (key, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(loader.apply(id));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+            }
+        }
+        return join(cached);
+    }
+
+    static <V> Map<Integer, V> getAll(AsyncCache<Integer, V> cache, int[] ids,
+                                      Function<int[], List<V>> loader, ToIntFunction<V> idOf) {
+        return join(cache.getAll(IntStream.of(ids).boxed().toList(), (missing, executor) -> {
+            try {
+                return CompletableFuture.completedFuture(
+                        loader.apply(missing.stream().mapToInt(Integer::intValue).toArray()).stream()
+                                .collect(Collectors.toMap(idOf::applyAsInt, Function.identity())));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Кэш фильмов по id перед другим хранилищем. Запись сбрасывается после обновления фильма
+ * и после изменения его лайков, списки и топ читаются из хранилища напрямую.
+ */
+public class CachingFilmStorage implements FilmStorage {
+
+    private final FilmStorage delegate;
+    private final AsyncCache<Integer, Film> cache;
+
+    public CachingFilmStorage(FilmStorage delegate, AsyncCache<Integer, Film> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return delegate.getAllFilms();
+    }
+
+    @Override
+    public List<Film> getFilms(int afterId, int limit) {
+        return delegate.getFilms(afterId, limit);
+    }
+
+    @Override
+    public List<Film> findFilms(FilmFilter filter, int afterId, int limit) {
+        return delegate.findFilms(filter, afterId, limit);
+    }
+
+    @Override
+    public Stream<Film> streamFilms() {
+        return delegate.streamFilms();
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return delegate.addFilm(film);
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        return delegate.addFilms(films);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        Film updated = delegate.updateFilm(film);
+        cache.synchronous().invalidate(film.getId());
+        return updated;
+    }
+
+    @Override
+    public Film getFilmById(int id) {
+        return CacheLoads.get(cache, id, delegate::getFilmById);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(int[] ids) {
+        Map<Integer, Film> found = CacheLoads.getAll(cache, ids, delegate::getFilmsByIds, Film::getId);
+        return IntStream.of(ids)
+                .mapToObj(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        boolean changed = delegate.addLike(filmId, userId);
+        if (changed) {
+            cache.synchronous().invalidate(filmId);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean deleteLike(int filmId, int userId) {
+        boolean changed = delegate.deleteLike(filmId, userId);
+        if (changed) {
+            cache.synchronous().invalidate(filmId);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean[] updateLikes(int filmId, int[] userIds, boolean[] liked) {
+        boolean[] changed = delegate.updateLikes(filmId, userIds, liked);
+        cache.synchronous().invalidate(filmId);
+        return changed;
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return delegate.getPopularFilms(count);
+    }
+
+    @Override
+    public IntSet getLikedFilmIds(int userId) {
+        return delegate.getLikedFilmIds(userId);
+    }
+
+    @Override
+    public int countFilms() {
+        return delegate.countFilms();
+    }
+}
@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Кэш пользователей по id перед другим хранилищем. Списки друзей собираются из кэша,
+ * так что повторные запросы друзей не доходят до хранилища. Запись сбрасывается
+ * после обновления пользователя и у обоих участников после изменения дружбы.
+ */
+public class CachingUserStorage implements UserStorage {
+
+    private final UserStorage delegate;
+    private final AsyncCache<Integer, User> cache;
+
+    public CachingUserStorage(UserStorage delegate, AsyncCache<Integer, User> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public List<User> getUsers(int afterId, int limit) {
+        return delegate.getUsers(afterId, limit);
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        return delegate.streamUsers();
+    }
+
+    @Override
+    public User addUser(User user) {
+        return delegate.addUser(user);
+    }
+
+    @Override
+    public List<User> addUsers(List<User> users) {
+        return delegate.addUsers(users);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        User updated = delegate.updateUser(user);
+        cache.synchronous().invalidate(user.getId());
+        return updated;
+    }
+
+    @Override
+    public User validateUserName(User user) {
+        return delegate.validateUserName(user);
+    }
+
+    @Override
+    public User getUserById(int id) {
+        return CacheLoads.get(cache, id, delegate::getUserById);
+    }
+
+    /**
+     * Промахи догружаются из хранилища одним пакетным запросом.
+     */
+    @Override
+    public List<User> getUsersByIds(int[] ids) {
+        Map<Integer, User> found = CacheLoads.getAll(cache, ids, delegate::getUsersByIds, User::getId);
+        return IntStream.of(ids)
+                .mapToObj(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        boolean changed = delegate.addFriend(userId, friendId);
+        if (changed) {
+            cache.synchronous().invalidateAll(List.of(userId, friendId));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean deleteFriend(int userId, int friendId) {
+        boolean changed = delegate.deleteFriend(userId, friendId);
+        if (changed) {
+            cache.synchronous().invalidateAll(List.of(userId, friendId));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean[] updateFriends(int userId, int[] friendIds, boolean[] friends) {
+        boolean[] changed = delegate.updateFriends(userId, friendIds, friends);
+        List<Integer> invalidated = new ArrayList<>();
+        invalidated.add(userId);
+        for (int i = 0; i < friendIds.length; i++) {
+            if (changed[i]) {
+                invalidated.add(friendIds[i]);
+            }
+        }
+        cache.synchronous().invalidateAll(invalidated);
+        return changed;
+    }
+
+    @Override
+    public List<User> getFriends(int userId) {
+        return getUsersByIds(getUserById(userId).getFriends().toArray());
+    }
+
+    @Override
+    public List<User> getCommonFriends(int userId, int otherUserId) {
+        IntSet friends = getUserById(userId).getFriends();
+        IntSet otherFriends = getUserById(otherUserId).getFriends();
+        return getUsersByIds(friends.intersect(otherFriends).toArray());
+    }
+
+    @Override
+    public int countUsers() {
+        return delegate.countUsers();
+    }
+}
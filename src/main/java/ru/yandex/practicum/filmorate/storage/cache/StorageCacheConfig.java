@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+/**
+ * Оборачивает выбранные хранилища кэшем, если {@code filmorate.storage.cache.enabled=true}.
+ * Вытеснение по размеру — W-TinyLFU из Caffeine, попадания и промахи видны в метриках cache.gets.
+ */
+@Configuration
+@ConditionalOnProperty(name = "filmorate.storage.cache.enabled", havingValue = "true")
+@EnableConfigurationProperties(StorageCacheProperties.class)
+public class StorageCacheConfig {
+
+    @Bean
+    @Primary
+    public CachingFilmStorage cachingFilmStorage(FilmStorage filmStorage, StorageCacheProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        AsyncCache<Integer, Film> cache = newCache(properties);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "films");
+        return new CachingFilmStorage(filmStorage, cache);
+    }
+
+    @Bean
+    @Primary
+    public CachingUserStorage cachingUserStorage(UserStorage userStorage, StorageCacheProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        AsyncCache<Integer, User> cache = newCache(properties);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        return new CachingUserStorage(userStorage, cache);
+    }
+
+    private static <V> AsyncCache<Integer, V> newCache(StorageCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .recordStats()
+                .buildAsync();
+    }
+}
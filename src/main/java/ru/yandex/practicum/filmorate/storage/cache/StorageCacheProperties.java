@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки кэша перед хранилищами, префикс {@code filmorate.storage.cache}.
+ *
+ * @param enabled      включить кэш фильмов и пользователей по id
+ * @param maximumSize  сколько сущностей каждого вида держать в кэше
+ */
+@ConfigurationProperties(prefix = "filmorate.storage.cache")
+public record StorageCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100000") long maximumSize) {
+}
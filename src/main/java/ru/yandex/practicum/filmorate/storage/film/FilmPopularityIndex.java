@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Упорядоченный индекс фильмов по количеству лайков.
+ * Порядок: больше лайков — выше, при равенстве — меньший id выше.
+ * Обновления одного фильма должны выполняться под блокировкой этого фильма, чтение блокировок не требует.
+ */
+public class FilmPopularityIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::likes).reversed()
+            .thenComparingInt(Entry::filmId);
+
+    private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Integer, Integer> likesByFilm = new ConcurrentHashMap<>();
+
+    public void update(int filmId, int likes) {
+        Integer previous = likesByFilm.put(filmId, likes);
+        if (previous != null) {
+            ranking.remove(new Entry(previous, filmId));
+        }
+        ranking.add(new Entry(likes, filmId));
+    }
+
+    public void remove(int filmId) {
+        Integer previous = likesByFilm.remove(filmId);
+        if (previous != null) {
+            ranking.remove(new Entry(previous, filmId));
+        }
+    }
+
+    public List<Integer> top(int count) {
+        List<Integer> result = new ArrayList<>(Math.min(count, likesByFilm.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (result.size() < count && iterator.hasNext()) {
+            result.add(iterator.next().filmId());
+        }
+        return result;
+    }
+
+    private record Entry(int likes, int filmId) {
+    }
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Вторичный индекс фильмов по целочисленному признаку (дню релиза, продолжительности) для запросов по диапазону.
+ * Ключ — значение признака в старших 32 битах и id фильма в младших, так что фильмы диапазона лежат подряд.
+ * Обновления одного фильма должны выполняться под блокировкой этого фильма, чтение блокировок не требует.
+ */
+public class FilmRangeIndex {
+
+    private final NavigableSet<Long> entries = new ConcurrentSkipListSet<>();
+    private final Map<Integer, Integer> valuesByFilm = new ConcurrentHashMap<>();
+
+    /**
+     * Переносит фильм на новое значение; null убирает фильм из индекса.
+     */
+    public void update(int filmId, Integer value) {
+        Integer previous = value == null ? valuesByFilm.remove(filmId) : valuesByFilm.put(filmId, value);
+        if (previous != null && !previous.equals(value)) {
+            entries.remove(entry(previous, filmId));
+        }
+        if (value != null) {
+            entries.add(entry(value, filmId));
+        }
+    }
+
+    /**
+     * Ключи фильмов со значением от {@code from} до {@code to} включительно, по возрастанию значения.
+     */
+    public NavigableSet<Long> range(int from, int to) {
+        if (from > to) {
+            return new ConcurrentSkipListSet<>();
+        }
+        return entries.subSet(entry(from, 0), true, entry(to, -1), true);
+    }
+
+    /**
+     * Лежит ли значение фильма в диапазоне от {@code from} до {@code to} включительно.
+     */
+    public boolean contains(int filmId, int from, int to) {
+        Integer value = valuesByFilm.get(filmId);
+        return value != null && value >= from && value <= to;
+    }
+
+    public static int filmId(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Какой из двух диапазонов меньше. Оба обходятся одновременно до конца меньшего,
+     * поэтому сравнение стоит O(меньший), а не O(больший).
+     */
+    public static NavigableSet<Long> smaller(NavigableSet<Long> first, NavigableSet<Long> second) {
+        Iterator<Long> left = first.iterator();
+        Iterator<Long> right = second.iterator();
+        while (left.hasNext() && right.hasNext()) {
+            left.next();
+            right.next();
+        }
+        return left.hasNext() ? second : first;
+    }
+
+    private static long entry(int value, int filmId) {
+        return (long) value << 32 | (filmId & 0xFFFFFFFFL);
+    }
+}
@@ -1,18 +1,64 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import io.micrometer.core.annotation.Timed;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.util.IntSet;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+@Timed(value = "filmorate.storage", histogram = true)
 public interface FilmStorage {
 
     List<Film> getAllFilms();
 
+    List<Film> getFilms(int afterId, int limit);
+
+    /**
+     * Страница фильмов, подходящих под фильтр, по возрастанию id: до limit фильмов с id больше afterId.
+     */
+    List<Film> findFilms(FilmFilter filter, int afterId, int limit);
+
+    Stream<Film> streamFilms();
+
     Film addFilm(Film film);
 
+    /**
+     * Массовое добавление: фильмы получают id в порядке списка.
+     */
+    List<Film> addFilms(List<Film> films);
+
+    /**
+     * Меняет только поля самого фильма, сохраненные лайки остаются прежними.
+     */
     Film updateFilm(Film film);
 
     Film getFilmById(int id);
 
+    /**
+     * Фильмы с указанными id за один проход в порядке ids, отсутствующие id пропускаются.
+     */
+    List<Film> getFilmsByIds(int[] ids);
+
+    boolean addLike(int filmId, int userId);
+
+    boolean deleteLike(int filmId, int userId);
+
+    /**
+     * Пакет лайков одного фильма: liked[i] ставит или снимает лайк userIds[i], операции применяются по порядку.
+     *
+     * @return для каждой операции, изменила ли она что-нибудь
+     */
+    boolean[] updateLikes(int filmId, int[] userIds, boolean[] liked);
+
+    List<Film> getPopularFilms(int count);
+
+    /**
+     * Id фильмов, которые лайкнул пользователь; для несуществующего пользователя — пустое множество.
+     */
+    IntSet getLikedFilmIds(int userId);
+
+    int countFilms();
 
 }
@@ -1,53 +1,315 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.ResourceNotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+import ru.yandex.practicum.filmorate.util.IntSet;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "memory", matchIfMissing = true)
 @Slf4j
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Integer, Film> films = new HashMap<>();
-    private static int id = 1;
+    private final ConcurrentNavigableMap<Integer, Film> films = new ConcurrentSkipListMap<>();
+    private final FilmPopularityIndex popularityIndex = new FilmPopularityIndex();
+    private final UserLikesIndex likesIndex = new UserLikesIndex();
+    private final FilmRangeIndex releaseDateIndex = new FilmRangeIndex();
+    private final FilmRangeIndex durationIndex = new FilmRangeIndex();
+    private final StripedLock locks = new StripedLock();
+    private final AtomicInteger id = new AtomicInteger(1);
 
     @Override
     public List<Film> getAllFilms() {
         return new ArrayList<>(films.values());
     }
 
+    @Override
+    public List<Film> getFilms(int afterId, int limit) {
+        return films.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Кандидаты берутся из меньшего из диапазонов по индексам и проверяются по значению фильма во втором индексе,
+     * что и дает пересечение с большим диапазоном. Подходящие id сортируются для постраничной выдачи.
+     */
+    @Override
+    public List<Film> findFilms(FilmFilter filter, int afterId, int limit) {
+        if (filter.isEmpty()) {
+            return getFilms(afterId, limit);
+        }
+        int fromDay = filter.releasedFrom() == null ? Integer.MIN_VALUE : epochDay(filter.releasedFrom());
+        int toDay = filter.releasedTo() == null ? Integer.MAX_VALUE : epochDay(filter.releasedTo());
+        int minDuration = filter.minDuration() == null ? Integer.MIN_VALUE : filter.minDuration();
+        int maxDuration = filter.maxDuration() == null ? Integer.MAX_VALUE : filter.maxDuration();
+        NavigableSet<Long> dates = filter.hasReleaseDate() ? releaseDateIndex.range(fromDay, toDay) : null;
+        NavigableSet<Long> durations = filter.hasDuration() ? durationIndex.range(minDuration, maxDuration) : null;
+        NavigableSet<Long> candidates;
+        IntPredicate inOtherRange;
+        if (dates == null || durations == null) {
+            candidates = dates == null ? durations : dates;
+            inOtherRange = id -> true;
+        } else if (FilmRangeIndex.smaller(dates, durations) == dates) {
+            candidates = dates;
+            inOtherRange = id -> durationIndex.contains(id, minDuration, maxDuration);
+        } else {
+            candidates = durations;
+            inOtherRange = id -> releaseDateIndex.contains(id, fromDay, toDay);
+        }
+        int[] ids = candidates.stream()
+                .mapToInt(FilmRangeIndex::filmId)
+                .filter(id -> id > afterId)
+                .filter(inOtherRange)
+                .sorted()
+                .limit(limit)
+                .toArray();
+        return getFilmsByIds(ids);
+    }
+
+    @Override
+    public Stream<Film> streamFilms() {
+        return films.values().stream();
+    }
+
     @Override
     public Film addFilm(Film film) {
-        film.setId(id);
-        films.put(film.getId(), film);
-        id++;
+        return insertFilm(film.withId(id.getAndIncrement()));
+    }
+
+    /**
+     * Добавляет фильм, которому id уже выдан, например шардированным хранилищем.
+     */
+    Film insertFilm(Film film) {
+        Lock lock = locks.get(film.getId());
+        lock.lock();
+        try {
+            onFilmSaved(film);
+            films.put(film.getId(), film);
+            popularityIndex.update(film.getId(), film.getLikedByUsers().size());
+            likesIndex.replace(film.getId(), null, film.getLikedByUsers());
+            updateRangeIndexes(film);
+        } finally {
+            lock.unlock();
+        }
         log.info("Добавлен фильм {}", film);
         return film;
     }
 
+    @Override
+    public List<Film> addFilms(List<Film> newFilms) {
+        return newFilms.stream()
+                .map(this::addFilm)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Film updateFilm(Film film) {
-        validateFilmId(film.getId());
-        films.put(film.getId(), film);
-        log.info("Обновлен фильм {}", film);
-        return film;
+        Lock lock = locks.get(film.getId());
+        lock.lock();
+        Film saved;
+        try {
+            saved = film.withLikedByUsers(getFilmById(film.getId()).getLikedByUsers());
+            onFilmSaved(saved);
+            films.put(saved.getId(), saved);
+            updateRangeIndexes(saved);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Обновлен фильм {}", saved);
+        return saved;
     }
 
     public Film getFilmById(int id) {
-        validateFilmId(id);
+        Film film = films.get(id);
+        if (film == null) {
+            throw filmNotFound(id);
+        }
+        return film;
+    }
+
+    Film findFilm(int id) {
         return films.get(id);
     }
 
-    private void validateFilmId(int id) {
-        if (!films.containsKey(id)) {
-            throw new ResourceNotFoundException("Фильм c id %d не найден".formatted(id));
+    @Override
+    public List<Film> getFilmsByIds(int[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Film film = films.get(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        Lock lock = locks.get(filmId);
+        lock.lock();
+        try {
+            Film film = getFilmById(filmId);
+            IntSet likes = film.getLikedByUsers().with(userId);
+            if (likes == film.getLikedByUsers()) {
+                return false;
+            }
+            onLikeChanged(filmId, userId, true);
+            publishLikes(film, likes);
+            likesIndex.add(userId, filmId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteLike(int filmId, int userId) {
+        Lock lock = locks.get(filmId);
+        lock.lock();
+        try {
+            Film film = getFilmById(filmId);
+            IntSet likes = film.getLikedByUsers().without(userId);
+            if (likes == film.getLikedByUsers()) {
+                return false;
+            }
+            onLikeChanged(filmId, userId, false);
+            publishLikes(film, likes);
+            likesIndex.remove(userId, filmId);
+            return true;
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Весь пакет применяется под блокировкой фильма одним слиянием с лайками ({@link IntSet#withChanges}),
+     * новая версия фильма и индекс популярности публикуются один раз.
+     */
+    @Override
+    public boolean[] updateLikes(int filmId, int[] userIds, boolean[] liked) {
+        Lock lock = locks.get(filmId);
+        lock.lock();
+        try {
+            Film film = getFilmById(filmId);
+            boolean[] changed = new boolean[userIds.length];
+            IntSet likes = film.getLikedByUsers().withChanges(userIds, liked, changed);
+            if (likes == film.getLikedByUsers()) {
+                return changed;
+            }
+            onLikesChanged(filmId, userIds, liked, changed);
+            publishLikes(film, likes);
+            for (int i = 0; i < userIds.length; i++) {
+                if (changed[i]) {
+                    if (liked[i]) {
+                        likesIndex.add(userIds[i], filmId);
+                    } else {
+                        likesIndex.remove(userIds[i], filmId);
+                    }
+                }
+            }
+            return changed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return popularityIndex.top(count).stream()
+                .map(films::get)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public IntSet getLikedFilmIds(int userId) {
+        return likesIndex.get(userId);
+    }
+
+    @Override
+    public int countFilms() {
+        return films.size();
+    }
+
+    /**
+     * Кладет фильм с уже известным id, например при восстановлении состояния с диска.
+     */
+    protected void restoreFilm(Film film) {
+        Lock lock = locks.get(film.getId());
+        lock.lock();
+        try {
+            Film previous = films.put(film.getId(), film);
+            popularityIndex.update(film.getId(), film.getLikedByUsers().size());
+            likesIndex.replace(film.getId(), previous == null ? null : previous.getLikedByUsers(),
+                    film.getLikedByUsers());
+            updateRangeIndexes(film);
+            id.accumulateAndGet(film.getId() + 1, Math::max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой фильма перед тем, как добавленный или обновленный фильм станет виден.
+     * Исключение из него отменяет изменение.
+     */
+    protected void onFilmSaved(Film film) {
+    }
+
+    /**
+     * Вызывается под блокировкой фильма перед тем, как добавление или удаление лайка станет видно.
+     * Исключение из него отменяет изменение.
+     */
+    protected void onLikeChanged(int filmId, int userId, boolean liked) {
+    }
+
+    /**
+     * То же для пакета {@link #updateLikes}: вызывается один раз, {@code changed} отмечает операции,
+     * которые изменили лайки.
+     */
+    protected void onLikesChanged(int filmId, int[] userIds, boolean[] liked, boolean[] changed) {
+        for (int i = 0; i < userIds.length; i++) {
+            if (changed[i]) {
+                onLikeChanged(filmId, userIds[i], liked[i]);
+            }
+        }
+    }
+
+    /**
+     * Заменяет фильм новой версией с другими лайками, прежняя версия остается неизменной у тех, кто ее уже прочитал.
+     */
+    private void publishLikes(Film film, IntSet likes) {
+        films.put(film.getId(), film.withLikedByUsers(likes));
+        popularityIndex.update(film.getId(), likes.size());
+    }
+
+    private void updateRangeIndexes(Film film) {
+        releaseDateIndex.update(film.getId(), film.getReleaseDate() == null ? null : epochDay(film.getReleaseDate()));
+        durationIndex.update(film.getId(), film.getDuration());
+    }
+
+    private static int epochDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    private ResourceNotFoundException filmNotFound(int id) {
+        return new ResourceNotFoundException("Фильм c id %d не найден".formatted(id));
+    }
+
 }
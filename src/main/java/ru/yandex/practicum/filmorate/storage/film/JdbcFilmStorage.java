@@ -0,0 +1,311 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.ResourceNotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.storage.JdbcRows;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище фильмов в реляционной базе: таблицы films и likes из schema.sql.
+ * Лайки пишутся пакетами подготовленных запросов, топ отвечается по индексу на films.likes_count.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "jdbc")
+@Slf4j
+@RequiredArgsConstructor
+public class JdbcFilmStorage implements FilmStorage {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String SELECT_FILMS = """
+            SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.likes_count,
+                   ARRAY_AGG(l.user_id ORDER BY l.user_id) FILTER (WHERE l.user_id IS NOT NULL) AS likes
+            FROM (%s) f
+            LEFT JOIN likes l ON l.film_id = f.film_id
+            GROUP BY f.film_id, f.name, f.description, f.release_date, f.duration, f.likes_count
+            ORDER BY %s""";
+    private static final String BY_ID = "f.film_id";
+    private static final String BY_POPULARITY = "f.likes_count DESC, f.film_id";
+    private static final String INSERT_FILM =
+            "INSERT INTO films (name, description, release_date, duration, likes_count) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_LIKE = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
+    private static final String INSERT_LIKE_IF_ABSENT = """
+            INSERT INTO likes (film_id, user_id)
+            SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Film> getAllFilms() {
+        return jdbcTemplate.query(SELECT_FILMS.formatted("SELECT * FROM films", BY_ID), this::mapFilm);
+    }
+
+    @Override
+    public List<Film> getFilms(int afterId, int limit) {
+        return jdbcTemplate.query(
+                SELECT_FILMS.formatted("SELECT * FROM films WHERE film_id > ? ORDER BY film_id LIMIT ?", BY_ID),
+                this::mapFilm, afterId, limit);
+    }
+
+    /**
+     * В запрос попадают только заданные границы, чтобы база могла пройти по индексу даты или продолжительности.
+     */
+    @Override
+    public List<Film> findFilms(FilmFilter filter, int afterId, int limit) {
+        StringBuilder where = new StringBuilder("film_id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        appendBound(where, args, "release_date >= ?", JdbcRows.toDate(filter.releasedFrom()));
+        appendBound(where, args, "release_date <= ?", JdbcRows.toDate(filter.releasedTo()));
+        appendBound(where, args, "duration >= ?", filter.minDuration());
+        appendBound(where, args, "duration <= ?", filter.maxDuration());
+        args.add(limit);
+        return jdbcTemplate.query(SELECT_FILMS.formatted(
+                        "SELECT * FROM films WHERE " + where + " ORDER BY film_id LIMIT ?", BY_ID),
+                this::mapFilm, args.toArray());
+    }
+
+    @Override
+    public Stream<Film> streamFilms() {
+        return jdbcTemplate.queryForStream(SELECT_FILMS.formatted("SELECT * FROM films", BY_ID), this::mapFilm);
+    }
+
+    @Override
+    @Transactional
+    public Film addFilm(Film film) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_FILM, new String[]{"film_id"});
+            setFilm(statement, film);
+            return statement;
+        }, keyHolder);
+        Film added = film.withId(keyHolder.getKeyAs(Integer.class));
+        insertLikes(List.of(added));
+        log.info("Добавлен фильм {}", added);
+        return added;
+    }
+
+    /**
+     * Фильмы и их лайки вставляются пакетами по {@value #BATCH_SIZE} строк в одной транзакции,
+     * без отдельного обращения к базе на каждую строку.
+     */
+    @Override
+    @Transactional
+    public List<Film> addFilms(List<Film> films) {
+        List<Film> added = new ArrayList<>(films.size());
+        for (int from = 0; from < films.size(); from += BATCH_SIZE) {
+            List<Film> batch = films.subList(from, Math.min(from + BATCH_SIZE, films.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_FILM, new String[]{"film_id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            setFilm(statement, batch.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keyHolder);
+            List<Film> inserted = JdbcRows.withKeys(keyHolder, batch, Film::withId);
+            insertLikes(inserted);
+            added.addAll(inserted);
+        }
+        log.info("Добавлено фильмов: {}", films.size());
+        return added;
+    }
+
+    @Override
+    @Transactional
+    public Film updateFilm(Film film) {
+        int updated = jdbcTemplate.update(
+                "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ? WHERE film_id = ?",
+                film.getName(), film.getDescription(), JdbcRows.toDate(film.getReleaseDate()), film.getDuration(),
+                film.getId());
+        if (updated == 0) {
+            throw filmNotFound(film.getId());
+        }
+        Film saved = getFilmById(film.getId());
+        log.info("Обновлен фильм {}", saved);
+        return saved;
+    }
+
+    @Override
+    public Film getFilmById(int id) {
+        List<Film> films = jdbcTemplate.query(
+                SELECT_FILMS.formatted("SELECT * FROM films WHERE film_id = ?", BY_ID), this::mapFilm, id);
+        if (films.isEmpty()) {
+            throw filmNotFound(id);
+        }
+        return films.getFirst();
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(int[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        List<Film> films = jdbcTemplate.query(
+                SELECT_FILMS.formatted("SELECT * FROM films WHERE film_id = ANY (?)", BY_ID),
+                statement -> statement.setArray(1, JdbcRows.toSqlArray(statement, ids)), this::mapFilm);
+        return JdbcRows.inOrder(ids, films, Film::getId);
+    }
+
+    @Override
+    @Transactional
+    public boolean addLike(int filmId, int userId) {
+        lockFilm(filmId);
+        if (jdbcTemplate.update(INSERT_LIKE_IF_ABSENT, filmId, userId, filmId, userId) == 0) {
+            return false;
+        }
+        jdbcTemplate.update("UPDATE films SET likes_count = likes_count + 1 WHERE film_id = ?", filmId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteLike(int filmId, int userId) {
+        lockFilm(filmId);
+        if (jdbcTemplate.update("DELETE FROM likes WHERE film_id = ? AND user_id = ?", filmId, userId) == 0) {
+            return false;
+        }
+        jdbcTemplate.update("UPDATE films SET likes_count = likes_count - 1 WHERE film_id = ?", filmId);
+        return true;
+    }
+
+    /**
+     * Под блокировкой строки фильма читаются уже существующие лайки из пакета, затем новые вставляются
+     * и снятые удаляются двумя пакетными запросами, а счетчик лайков сдвигается один раз на разницу.
+     */
+    @Override
+    @Transactional
+    public boolean[] updateLikes(int filmId, int[] userIds, boolean[] liked) {
+        lockFilm(filmId);
+        Set<Integer> before = new HashSet<>(jdbcTemplate.query(
+                "SELECT user_id FROM likes WHERE film_id = ? AND user_id = ANY (?)",
+                statement -> {
+                    statement.setInt(1, filmId);
+                    statement.setArray(2, JdbcRows.toSqlArray(statement, userIds));
+                },
+                (rs, rowNum) -> rs.getInt("user_id")));
+        Set<Integer> after = new HashSet<>(before);
+        boolean[] changed = new boolean[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            changed[i] = liked[i] ? after.add(userIds[i]) : after.remove(userIds[i]);
+        }
+        List<Integer> added = after.stream()
+                .filter(userId -> !before.contains(userId))
+                .collect(Collectors.toList());
+        List<Integer> removed = before.stream()
+                .filter(userId -> !after.contains(userId))
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_LIKE, added, BATCH_SIZE, (statement, userId) -> {
+            statement.setInt(1, filmId);
+            statement.setInt(2, userId);
+        });
+        jdbcTemplate.batchUpdate("DELETE FROM likes WHERE film_id = ? AND user_id = ?", removed, BATCH_SIZE,
+                (statement, userId) -> {
+                    statement.setInt(1, filmId);
+                    statement.setInt(2, userId);
+                });
+        if (added.size() != removed.size()) {
+            jdbcTemplate.update("UPDATE films SET likes_count = likes_count + ? WHERE film_id = ?",
+                    added.size() - removed.size(), filmId);
+        }
+        return changed;
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return jdbcTemplate.query(SELECT_FILMS.formatted(
+                        "SELECT * FROM films ORDER BY likes_count DESC, film_id LIMIT ?", BY_POPULARITY),
+                this::mapFilm, count);
+    }
+
+    @Override
+    public IntSet getLikedFilmIds(int userId) {
+        return IntSet.ofSorted(jdbcTemplate.queryForList(
+                        "SELECT film_id FROM likes WHERE user_id = ? ORDER BY film_id", Integer.class, userId)
+                .stream()
+                .mapToInt(Integer::intValue)
+                .toArray());
+    }
+
+    @Override
+    public int countFilms() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM films", Integer.class);
+    }
+
+    private static void appendBound(StringBuilder where, List<Object> args, String condition, Object value) {
+        if (value != null) {
+            where.append(" AND ").append(condition);
+            args.add(value);
+        }
+    }
+
+    private void insertLikes(List<Film> films) {
+        List<int[]> likes = new ArrayList<>();
+        for (Film film : films) {
+            film.getLikedByUsers().forEach(userId -> likes.add(new int[]{film.getId(), userId}));
+        }
+        jdbcTemplate.batchUpdate(INSERT_LIKE, likes, BATCH_SIZE, (statement, like) -> {
+            statement.setInt(1, like[0]);
+            statement.setInt(2, like[1]);
+        });
+    }
+
+    /**
+     * Блокирует строку фильма до конца транзакции, чтобы изменения лайков одного фильма шли по очереди.
+     */
+    private void lockFilm(int id) {
+        List<Integer> locked = jdbcTemplate.queryForList(
+                "SELECT film_id FROM films WHERE film_id = ? FOR UPDATE", Integer.class, id);
+        if (locked.isEmpty()) {
+            throw filmNotFound(id);
+        }
+    }
+
+    private static void setFilm(PreparedStatement statement, Film film) throws SQLException {
+        statement.setString(1, film.getName());
+        statement.setString(2, film.getDescription());
+        statement.setDate(3, JdbcRows.toDate(film.getReleaseDate()));
+        statement.setInt(4, film.getDuration());
+        statement.setInt(5, film.getLikedByUsers().size());
+    }
+
+    private Film mapFilm(ResultSet rs, int rowNum) throws SQLException {
+        return Film.builder()
+                .id(rs.getInt("film_id"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .releaseDate(JdbcRows.getLocalDate(rs, "release_date"))
+                .duration(rs.getInt("duration"))
+                .likedByUsers(JdbcRows.getIntSet(rs, "likes"))
+                .build();
+    }
+
+    private ResourceNotFoundException filmNotFound(int id) {
+        return new ResourceNotFoundException("Фильм c id %d не найден".formatted(id));
+    }
+}
@@ -0,0 +1,179 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище фильмов в памяти, разбитое на независимые шарды: у каждого свои карта фильмов, индексы и блокировки.
+ * Id выдает общий счетчик, а фильм с id {@code k} живет в шарде {@code (k - 1) mod n}: за каждым шардом
+ * закреплены свои id, шард определяется по id без общей таблицы, а подряд добавленные фильмы расходятся по шардам.
+ * Лайк меняет только фильм, так что операции с лайками целиком выполняются в шарде фильма;
+ * выборки по всем фильмам собираются из шардов и сливаются по id или по популярности.
+ */
+public class ShardedFilmStorage implements FilmStorage {
+
+    private static final Comparator<Film> BY_ID = Comparator.comparingInt(Film::getId);
+    private static final Comparator<Popularity> BY_POPULARITY = Comparator.comparingInt(Popularity::likes).reversed()
+            .thenComparingInt(popularity -> popularity.film().getId());
+
+    private final InMemoryFilmStorage[] shards;
+    private final AtomicInteger id = new AtomicInteger(1);
+
+    public ShardedFilmStorage(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shardCount);
+        }
+        shards = new InMemoryFilmStorage[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new InMemoryFilmStorage();
+        }
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return streamFilms()
+                .sorted(BY_ID)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Film> getFilms(int afterId, int limit) {
+        return merge(shard -> shard.getFilms(afterId, limit), limit);
+    }
+
+    @Override
+    public List<Film> findFilms(FilmFilter filter, int afterId, int limit) {
+        return merge(shard -> shard.findFilms(filter, afterId, limit), limit);
+    }
+
+    /**
+     * Фильмы идут по шардам, внутри шарда — по возрастанию id.
+     */
+    @Override
+    public Stream<Film> streamFilms() {
+        return Arrays.stream(shards).flatMap(InMemoryFilmStorage::streamFilms);
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        int filmId = id.getAndIncrement();
+        return shard(filmId).insertFilm(film.withId(filmId));
+    }
+
+    /**
+     * Пакет получает подряд идущие id одним обращением к счетчику и расходится по шардам.
+     */
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        int next = id.getAndAdd(films.size());
+        List<Film> added = new ArrayList<>(films.size());
+        for (Film film : films) {
+            int filmId = next++;
+            added.add(shard(filmId).insertFilm(film.withId(filmId)));
+        }
+        return added;
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return shard(film.getId()).updateFilm(film);
+    }
+
+    @Override
+    public Film getFilmById(int id) {
+        return shard(id).getFilmById(id);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(int[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Film film = shard(id).findFilm(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        return shard(filmId).addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean deleteLike(int filmId, int userId) {
+        return shard(filmId).deleteLike(filmId, userId);
+    }
+
+    @Override
+    public boolean[] updateLikes(int filmId, int[] userIds, boolean[] liked) {
+        return shard(filmId).updateLikes(filmId, userIds, liked);
+    }
+
+    /**
+     * Топ каждого шарда уже упорядочен, общий топ — лучшие {@code count} из их объединения.
+     * Число лайков запоминается один раз, чтобы параллельные лайки не меняли порядок во время сортировки.
+     */
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return Arrays.stream(shards)
+                .flatMap(shard -> shard.getPopularFilms(count).stream())
+                .map(film -> new Popularity(film, film.getLikedByUsers().size()))
+                .sorted(BY_POPULARITY)
+                .limit(count)
+                .map(Popularity::film)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public IntSet getLikedFilmIds(int userId) {
+        int[][] parts = new int[shards.length][];
+        int size = 0;
+        for (int i = 0; i < shards.length; i++) {
+            parts[i] = shards[i].getLikedFilmIds(userId).toArray();
+            size += parts[i].length;
+        }
+        int[] filmIds = new int[size];
+        int position = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, filmIds, position, part.length);
+            position += part.length;
+        }
+        return IntSet.of(filmIds);
+    }
+
+    @Override
+    public int countFilms() {
+        int count = 0;
+        for (InMemoryFilmStorage shard : shards) {
+            count += shard.countFilms();
+        }
+        return count;
+    }
+
+    private List<Film> merge(Function<InMemoryFilmStorage, List<Film>> page, int limit) {
+        return Arrays.stream(shards)
+                .flatMap(shard -> page.apply(shard).stream())
+                .sorted(BY_ID)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private InMemoryFilmStorage shard(int filmId) {
+        return shards[Math.floorMod(filmId - 1, shards.length)];
+    }
+
+    private record Popularity(Film film, int likes) {
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Обратный индекс лайков: пользователь — фильмы, которые он лайкнул.
+ * Обновления одного фильма должны выполняться под блокировкой этого фильма; множества фильмов пользователя
+ * меняются без блокировок, поэтому лайки разных фильмов от одного пользователя не мешают друг другу.
+ */
+public class UserLikesIndex {
+
+    private final Map<Integer, IntSet> filmsByUser = new ConcurrentHashMap<>();
+
+    public void add(int userId, int filmId) {
+        filmsByUser.computeIfAbsent(userId, id -> new IntSet()).add(filmId);
+    }
+
+    public void remove(int userId, int filmId) {
+        IntSet films = filmsByUser.get(userId);
+        if (films != null) {
+            films.remove(filmId);
+        }
+    }
+
+    /**
+     * Заменяет лайки фильма целиком, например при обновлении фильма.
+     */
+    public void replace(int filmId, IntSet previousLikes, IntSet likes) {
+        if (previousLikes != null) {
+            previousLikes.forEach(userId -> {
+                if (!likes.contains(userId)) {
+                    remove(userId, filmId);
+                }
+            });
+        }
+        likes.forEach(userId -> add(userId, filmId));
+    }
+
+    public IntSet get(int userId) {
+        return IntSet.copyOf(filmsByUser.get(userId));
+    }
+}
@@ -0,0 +1,191 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ResourceNotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.wal.BinarySnapshot;
+import ru.yandex.practicum.filmorate.storage.wal.FilmSnapshotCodec;
+import ru.yandex.practicum.filmorate.storage.wal.JsonSnapshot;
+import ru.yandex.practicum.filmorate.storage.wal.SnapshotTrigger;
+import ru.yandex.practicum.filmorate.storage.wal.WalProperties;
+import ru.yandex.practicum.filmorate.storage.wal.WalRecord;
+import ru.yandex.practicum.filmorate.storage.wal.WriteAheadLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище фильмов в памяти, которое переживает перезапуск: каждое изменение пишется в журнал,
+ * периодически состояние сохраняется снимком. При старте загружается снимок и применяется хвост журнала.
+ * Снимок двоичный ({@link BinarySnapshot}), JSON-снимок прежних версий читается, если двоичного еще нет.
+ * <p>
+ * Изменение становится видно только после того, как его запись надежно легла в журнал; если журнал
+ * недоступен, изменение отклоняется и состояние в памяти остается прежним. Снимок начинает новый сегмент,
+ * только когда нет изменений, уже записанных в старый сегмент, но еще не видных в памяти.
+ */
+@Slf4j
+public class WalFilmStorage extends InMemoryFilmStorage implements Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final Path snapshotFile;
+    private final Path jsonSnapshotFile;
+    private final BinarySnapshot<Film> snapshotFormat = new BinarySnapshot<>(new FilmSnapshotCodec());
+    private final int loadParallelism;
+    private final WriteAheadLog wal;
+    private final SnapshotTrigger snapshotTrigger;
+    private final ReadWriteLock publishing = new ReentrantReadWriteLock();
+    private volatile boolean recovering;
+
+    WalFilmStorage(WalProperties properties, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.snapshotFile = properties.directory().resolve("films.snapshot");
+        this.jsonSnapshotFile = properties.directory().resolve("films.snapshot.json");
+        this.loadParallelism = properties.loadParallelism();
+        this.wal = new WriteAheadLog(properties.directory(), "films", objectMapper, properties.fsync(),
+                properties.fsyncInterval(), properties.groupCommitSize());
+        this.snapshotTrigger = new SnapshotTrigger("films", wal, properties.snapshotEvery());
+    }
+
+    /**
+     * Открывает хранилище и восстанавливает его из снимка и журнала. Восстановление идет уже после
+     * конструктора, чтобы переопределяемые методы не вызывались на недостроенном объекте.
+     */
+    public static WalFilmStorage open(WalProperties properties, ObjectMapper objectMapper) throws IOException {
+        WalFilmStorage storage = new WalFilmStorage(properties, objectMapper);
+        try {
+            storage.recover();
+        } catch (IOException | RuntimeException e) {
+            storage.close();
+            throw e;
+        }
+        return storage;
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return commit(() -> super.addFilm(film));
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return commit(() -> super.updateFilm(film));
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        return commit(() -> super.addLike(filmId, userId));
+    }
+
+    @Override
+    public boolean deleteLike(int filmId, int userId) {
+        return commit(() -> super.deleteLike(filmId, userId));
+    }
+
+    @Override
+    public boolean[] updateLikes(int filmId, int[] userIds, boolean[] liked) {
+        return commit(() -> super.updateLikes(filmId, userIds, liked));
+    }
+
+    public void snapshot() throws IOException {
+        long segment;
+        publishing.writeLock().lock();
+        try {
+            segment = wal.rotate();
+        } finally {
+            publishing.writeLock().unlock();
+        }
+        try (Stream<Film> films = streamFilms()) {
+            Iterator<Film> iterator = films.iterator();
+            snapshotFormat.write(snapshotFile, segment, iterator);
+        }
+        Files.deleteIfExists(jsonSnapshotFile);
+        wal.deleteSegmentsBefore(segment);
+        log.info("Сохранен снимок фильмов, журнал обрезан до сегмента {}", segment);
+    }
+
+    @Override
+    public void close() {
+        snapshotTrigger.close();
+        wal.close();
+    }
+
+    @Override
+    protected void onFilmSaved(Film film) {
+        if (!recovering) {
+            wal.awaitDurable(wal.submit(WalRecord.saveFilm(film)));
+        }
+    }
+
+    @Override
+    protected void onLikeChanged(int filmId, int userId, boolean liked) {
+        if (!recovering) {
+            wal.awaitDurable(wal.submit(WalRecord.like(filmId, userId, liked)));
+        }
+    }
+
+    /**
+     * Записи всего пакета сбрасываются на диск одним коммитом.
+     */
+    @Override
+    protected void onLikesChanged(int filmId, int[] userIds, boolean[] liked, boolean[] changed) {
+        if (recovering) {
+            return;
+        }
+        long lsn = 0;
+        for (int i = 0; i < userIds.length; i++) {
+            if (changed[i]) {
+                lsn = wal.submit(WalRecord.like(filmId, userIds[i], liked[i]));
+            }
+        }
+        wal.awaitDurable(lsn);
+    }
+
+    /**
+     * Выполняет изменение так, что снимок не начнет новый сегмент между записью в журнал и публикацией.
+     */
+    private <T> T commit(Supplier<T> change) {
+        T result;
+        publishing.readLock().lock();
+        try {
+            result = change.get();
+        } finally {
+            publishing.readLock().unlock();
+        }
+        snapshotTrigger.afterCommit(this::snapshot);
+        return result;
+    }
+
+    private void recover() throws IOException {
+        recovering = true;
+        try {
+            long segment = Files.exists(snapshotFile)
+                    ? snapshotFormat.read(snapshotFile, loadParallelism, this::restoreFilm)
+                    : JsonSnapshot.read(objectMapper, jsonSnapshotFile, Film.class, this::restoreFilm);
+            long replayed = wal.replay(segment, this::apply);
+            log.info("Восстановлено фильмов: {}, применено записей журнала: {}", getAllFilms().size(), replayed);
+        } finally {
+            recovering = false;
+        }
+    }
+
+    private void apply(WalRecord record) {
+        try {
+            switch (record.type()) {
+                case SAVE_FILM -> restoreFilm(record.film());
+                case LIKE -> super.addLike(record.id(), record.otherId());
+                case UNLIKE -> super.deleteLike(record.id(), record.otherId());
+                default -> log.warn("Неожиданная запись в журнале фильмов: {}", record.type());
+            }
+        } catch (ResourceNotFoundException e) {
+            log.warn("Запись журнала {} пропущена: {}", record.type(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.storage.film.ShardedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.ShardedUserStorage;
+
+@Configuration
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "sharded")
+@EnableConfigurationProperties(ShardedStorageProperties.class)
+public class ShardedStorageConfig {
+
+    @Bean
+    public ShardedFilmStorage filmStorage(ShardedStorageProperties properties) {
+        return new ShardedFilmStorage(properties.shards());
+    }
+
+    @Bean
+    public ShardedUserStorage userStorage(ShardedStorageProperties properties) {
+        return new ShardedUserStorage(properties.shards());
+    }
+}
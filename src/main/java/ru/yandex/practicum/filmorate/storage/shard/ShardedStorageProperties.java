@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки шардированного хранилища в памяти, префикс {@code filmorate.storage.sharded}.
+ *
+ * @param shards на сколько независимых шардов делятся фильмы и пользователи
+ */
+@ConfigurationProperties(prefix = "filmorate.storage.sharded")
+public record ShardedStorageProperties(
+        @DefaultValue("16") int shards) {
+}
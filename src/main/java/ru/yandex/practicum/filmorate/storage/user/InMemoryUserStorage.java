@@ -1,61 +1,296 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.ResourceNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+import ru.yandex.practicum.filmorate.util.IntSet;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "memory", matchIfMissing = true)
 @Slf4j
 public class InMemoryUserStorage implements UserStorage {
 
-    private final Map<Integer, User> users = new HashMap<>();
-    private static int id = 1;
+    private final ConcurrentNavigableMap<Integer, User> users = new ConcurrentSkipListMap<>();
+    private final StripedLock locks = new StripedLock();
+    private final AtomicInteger id = new AtomicInteger(1);
 
     @Override
     public List<User> getAllUsers() {
         return new ArrayList<>(users.values());
     }
 
+    @Override
+    public List<User> getUsers(int afterId, int limit) {
+        return users.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        return users.values().stream();
+    }
+
     @Override
     public User addUser(User user) {
-        user.setId(id);
-        users.put(user.getId(), validateUserName(user));
-        id++;
-        log.info("Добавлен пользователь {}", user);
-        return user;
+        return insertUser(user.withId(id.getAndIncrement()));
+    }
+
+    /**
+     * Добавляет пользователя, которому id уже выдан, например шардированным хранилищем.
+     */
+    User insertUser(User user) {
+        User saved = validateUserName(user).withFriends(IntSet.of());
+        Lock lock = locks.get(saved.getId());
+        lock.lock();
+        try {
+            onUserSaved(saved);
+            users.put(saved.getId(), saved);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Добавлен пользователь {}", saved);
+        return saved;
+    }
+
+    @Override
+    public List<User> addUsers(List<User> newUsers) {
+        return newUsers.stream()
+                .map(this::addUser)
+                .collect(Collectors.toList());
     }
 
     @Override
     public User updateUser(User user) {
-        validateUserId(user.getId());
-        users.put(user.getId(), validateUserName(user));
-        log.info("Обновлен пользователь {}", user);
-        return user;
+        User named = validateUserName(user);
+        Lock lock = locks.get(named.getId());
+        lock.lock();
+        User saved;
+        try {
+            saved = named.withFriends(getUserById(named.getId()).getFriends());
+            onUserSaved(saved);
+            users.put(saved.getId(), saved);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Обновлен пользователь {}", saved);
+        return saved;
     }
 
     @Override
     public User getUserById(int id) {
-        validateUserId(id);
+        User user = users.get(id);
+        if (user == null) {
+            throw userNotFound(id);
+        }
+        return user;
+    }
+
+    User findUser(int id) {
         return users.get(id);
     }
 
+    Lock lockFor(int userId) {
+        return locks.get(userId);
+    }
+
+    int[] lockAll(int[] userIds) {
+        return locks.lockAll(userIds);
+    }
+
+    void unlockAll(int[] locked) {
+        locks.unlockAll(locked);
+    }
+
+    @Override
+    public List<User> getUsersByIds(int[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        return changeFriendship(userId, friendId, true);
+    }
+
+    @Override
+    public boolean deleteFriend(int userId, int friendId) {
+        return changeFriendship(userId, friendId, false);
+    }
+
+    /**
+     * Блокировки пользователя и всех друзей из пакета берутся один раз. Сторона пользователя применяется
+     * одним слиянием с его друзьями, новая версия пользователя публикуется один раз, а каждый друг,
+     * чья дружба изменилась, получает свою новую версию.
+     */
+    @Override
+    public boolean[] updateFriends(int userId, int[] friendIds, boolean[] friends) {
+        int[] ids = Arrays.copyOf(friendIds, friendIds.length + 1);
+        ids[friendIds.length] = userId;
+        int[] locked = lockAll(ids);
+        try {
+            for (int id : ids) {
+                getUserById(id);
+            }
+            User user = getUserById(userId);
+            boolean[] changed = new boolean[friendIds.length];
+            IntSet updated = user.getFriends().withChanges(friendIds, friends, changed);
+            if (updated == user.getFriends()) {
+                return changed;
+            }
+            onFriendshipsChanged(userId, friendIds, friends, changed);
+            users.put(userId, user.withFriends(updated));
+            for (int i = 0; i < friendIds.length; i++) {
+                if (changed[i]) {
+                    setFriend(friendIds[i], userId, friends[i]);
+                }
+            }
+            return changed;
+        } finally {
+            unlockAll(locked);
+        }
+    }
+
+    @Override
+    public List<User> getFriends(int userId) {
+        return getUsersByIds(getUserById(userId).getFriends().toArray());
+    }
+
+    @Override
+    public List<User> getCommonFriends(int userId, int otherUserId) {
+        IntSet friends = getUserById(userId).getFriends();
+        IntSet otherFriends = getUserById(otherUserId).getFriends();
+        return getUsersByIds(friends.intersect(otherFriends).toArray());
+    }
+
+    @Override
+    public int countUsers() {
+        return users.size();
+    }
+
+    /**
+     * Кладет пользователя с уже известным id, например при восстановлении состояния с диска.
+     */
+    protected void restoreUser(User user) {
+        Lock lock = locks.get(user.getId());
+        lock.lock();
+        try {
+            users.put(user.getId(), user);
+            id.accumulateAndGet(user.getId() + 1, Math::max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой пользователя перед тем, как добавленный или обновленный пользователь станет виден.
+     * Исключение из него отменяет изменение.
+     */
+    protected void onUserSaved(User user) {
+    }
+
+    /**
+     * Вызывается под блокировками обоих пользователей перед тем, как изменение дружбы станет видно.
+     * Исключение из него отменяет изменение.
+     */
+    protected void onFriendshipChanged(int userId, int friendId, boolean friends) {
+    }
+
+    /**
+     * То же для пакета {@link #updateFriends}: вызывается один раз, {@code changed} отмечает операции,
+     * которые изменили дружбу.
+     */
+    protected void onFriendshipsChanged(int userId, int[] friendIds, boolean[] friends, boolean[] changed) {
+        for (int i = 0; i < friendIds.length; i++) {
+            if (changed[i]) {
+                onFriendshipChanged(userId, friendIds[i], friends[i]);
+            }
+        }
+    }
+
     public User validateUserName(User user) {
         if (user.getName() == null || user.getName().isBlank()) {
             log.info("Имя пользователя не указано. Заполняется логином.");
-            user.setName(user.getLogin());
+            return user.withName(user.getLogin());
         }
         return user;
     }
 
     public void validateUserId(int id) {
         if (!users.containsKey(id)) {
-            throw new ResourceNotFoundException("Пользователь c id %d не найден".formatted(id));
+            throw userNotFound(id);
+        }
+    }
+
+    private boolean changeFriendship(int userId, int friendId, boolean friends) {
+        locks.lock(userId, friendId);
+        try {
+            User user = getUserById(userId);
+            getUserById(friendId);
+            if (user.getFriends().contains(friendId) == friends) {
+                return false;
+            }
+            onFriendshipChanged(userId, friendId, friends);
+            setFriend(userId, friendId, friends);
+            setFriend(friendId, userId, friends);
+            return true;
+        } finally {
+            locks.unlock(userId, friendId);
         }
     }
+
+    /**
+     * Публикует новую версию пользователя с добавленным или удаленным другом, одну сторону дружбы.
+     * Вызывающий держит блокировку пользователя.
+     *
+     * @return false, если дружба уже была в нужном состоянии
+     */
+    boolean setFriend(int userId, int friendId, boolean friends) {
+        User user = getUserById(userId);
+        IntSet updated = friends ? user.getFriends().with(friendId) : user.getFriends().without(friendId);
+        if (updated == user.getFriends()) {
+            return false;
+        }
+        users.put(userId, user.withFriends(updated));
+        return true;
+    }
+
+    /**
+     * Публикует новую версию пользователя после пакета изменений дружбы, только его сторону.
+     * Вызывающий держит блокировку пользователя.
+     *
+     * @return какие операции пакета изменили дружбу
+     */
+    boolean[] setFriends(int userId, int[] friendIds, boolean[] friends) {
+        User user = getUserById(userId);
+        boolean[] changed = new boolean[friendIds.length];
+        IntSet updated = user.getFriends().withChanges(friendIds, friends, changed);
+        if (updated != user.getFriends()) {
+            users.put(userId, user.withFriends(updated));
+        }
+        return changed;
+    }
+
+    private ResourceNotFoundException userNotFound(int id) {
+        return new ResourceNotFoundException("Пользователь c id %d не найден".formatted(id));
+    }
 }
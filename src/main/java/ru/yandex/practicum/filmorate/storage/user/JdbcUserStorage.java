@@ -0,0 +1,312 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.ResourceNotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.JdbcRows;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище пользователей в реляционной базе: таблицы users и friendships из schema.sql.
+ * Дружба хранится двумя строками, общие друзья считаются соединением таблицы дружбы самой с собой.
+ * Обе строки всегда пишутся и удаляются вместе, а уже существующая строка при вставке пропускается.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "jdbc")
+@Slf4j
+@RequiredArgsConstructor
+public class JdbcUserStorage implements UserStorage {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String SELECT_USERS = """
+            SELECT u.user_id, u.email, u.login, u.name, u.birthday,
+                   ARRAY_AGG(fr.friend_id ORDER BY fr.friend_id) FILTER (WHERE fr.friend_id IS NOT NULL) AS friends
+            FROM (%s) u
+            LEFT JOIN friendships fr ON fr.user_id = u.user_id
+            GROUP BY u.user_id, u.email, u.login, u.name, u.birthday
+            ORDER BY u.user_id""";
+    private static final String INSERT_USER = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_FRIENDSHIP = """
+            INSERT INTO friendships (user_id, friend_id)
+            SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM friendships WHERE user_id = ? AND friend_id = ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<User> getAllUsers() {
+        return jdbcTemplate.query(SELECT_USERS.formatted("SELECT * FROM users"), this::mapUser);
+    }
+
+    @Override
+    public List<User> getUsers(int afterId, int limit) {
+        return jdbcTemplate.query(
+                SELECT_USERS.formatted("SELECT * FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?"),
+                this::mapUser, afterId, limit);
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        return jdbcTemplate.queryForStream(SELECT_USERS.formatted("SELECT * FROM users"), this::mapUser);
+    }
+
+    @Override
+    @Transactional
+    public User addUser(User user) {
+        User named = validateUserName(user).withFriends(IntSet.of());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_USER, new String[]{"user_id"});
+            setUser(statement, named);
+            return statement;
+        }, keyHolder);
+        User added = named.withId(keyHolder.getKeyAs(Integer.class));
+        log.info("Добавлен пользователь {}", added);
+        return added;
+    }
+
+    /**
+     * Пользователи вставляются пакетами по {@value #BATCH_SIZE} строк в одной транзакции.
+     */
+    @Override
+    @Transactional
+    public List<User> addUsers(List<User> users) {
+        List<User> added = new ArrayList<>(users.size());
+        for (int from = 0; from < users.size(); from += BATCH_SIZE) {
+            List<User> batch = users.subList(from, Math.min(from + BATCH_SIZE, users.size())).stream()
+                    .map(user -> validateUserName(user).withFriends(IntSet.of()))
+                    .collect(Collectors.toList());
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_USER, new String[]{"user_id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            setUser(statement, batch.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keyHolder);
+            added.addAll(JdbcRows.withKeys(keyHolder, batch, User::withId));
+        }
+        log.info("Добавлено пользователей: {}", users.size());
+        return added;
+    }
+
+    @Override
+    @Transactional
+    public User updateUser(User user) {
+        User named = validateUserName(user);
+        int updated = jdbcTemplate.update(
+                "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE user_id = ?",
+                named.getEmail(), named.getLogin(), named.getName(), JdbcRows.toDate(named.getBirthday()),
+                named.getId());
+        if (updated == 0) {
+            throw userNotFound(named.getId());
+        }
+        User saved = getUserById(named.getId());
+        log.info("Обновлен пользователь {}", saved);
+        return saved;
+    }
+
+    @Override
+    public User validateUserName(User user) {
+        if (user.getName() == null || user.getName().isBlank()) {
+            log.info("Имя пользователя не указано. Заполняется логином.");
+            return user.withName(user.getLogin());
+        }
+        return user;
+    }
+
+    @Override
+    public User getUserById(int id) {
+        List<User> users = jdbcTemplate.query(
+                SELECT_USERS.formatted("SELECT * FROM users WHERE user_id = ?"), this::mapUser, id);
+        if (users.isEmpty()) {
+            throw userNotFound(id);
+        }
+        return users.getFirst();
+    }
+
+    @Override
+    public List<User> getUsersByIds(int[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        List<User> users = jdbcTemplate.query(
+                SELECT_USERS.formatted("SELECT * FROM users WHERE user_id = ANY (?)"),
+                statement -> statement.setArray(1, JdbcRows.toSqlArray(statement, ids)), this::mapUser);
+        return JdbcRows.inOrder(ids, users, User::getId);
+    }
+
+    /**
+     * Строки обоих пользователей блокируются в порядке id, поэтому встречные запросы и пакеты
+     * ждут друг друга, а не блокируют друг друга крест-накрест.
+     */
+    @Override
+    @Transactional
+    public boolean addFriend(int userId, int friendId) {
+        lockUsers(userId, friendId);
+        int inserted = jdbcTemplate.update(INSERT_FRIENDSHIP, userId, friendId, userId, friendId)
+                + jdbcTemplate.update(INSERT_FRIENDSHIP, friendId, userId, friendId, userId);
+        return inserted > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteFriend(int userId, int friendId) {
+        lockUsers(userId, friendId);
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM friendships WHERE (user_id = ? AND friend_id = ?) OR (user_id = ? AND friend_id = ?)",
+                userId, friendId, friendId, userId);
+        return deleted > 0;
+    }
+
+    /**
+     * Под блокировками всех затронутых пользователей читаются уже существующие дружбы из пакета,
+     * затем обе строки новых дружб вставляются, а снятых удаляются пакетными запросами.
+     */
+    @Override
+    @Transactional
+    public boolean[] updateFriends(int userId, int[] friendIds, boolean[] friends) {
+        int[] ids = Arrays.copyOf(friendIds, friendIds.length + 1);
+        ids[friendIds.length] = userId;
+        lockUsers(ids);
+        Set<Integer> before = new HashSet<>(jdbcTemplate.query(
+                "SELECT friend_id FROM friendships WHERE user_id = ? AND friend_id = ANY (?)",
+                statement -> {
+                    statement.setInt(1, userId);
+                    statement.setArray(2, JdbcRows.toSqlArray(statement, friendIds));
+                },
+                (rs, rowNum) -> rs.getInt("friend_id")));
+        Set<Integer> after = new HashSet<>(before);
+        boolean[] changed = new boolean[friendIds.length];
+        for (int i = 0; i < friendIds.length; i++) {
+            changed[i] = friends[i] ? after.add(friendIds[i]) : after.remove(friendIds[i]);
+        }
+        List<int[]> added = new ArrayList<>();
+        after.stream()
+                .filter(friendId -> !before.contains(friendId))
+                .forEach(friendId -> {
+                    added.add(new int[]{userId, friendId});
+                    added.add(new int[]{friendId, userId});
+                });
+        List<int[]> removed = new ArrayList<>();
+        before.stream()
+                .filter(friendId -> !after.contains(friendId))
+                .forEach(friendId -> {
+                    removed.add(new int[]{userId, friendId});
+                    removed.add(new int[]{friendId, userId});
+                });
+        insertFriendships(added);
+        jdbcTemplate.batchUpdate("DELETE FROM friendships WHERE user_id = ? AND friend_id = ?", removed, BATCH_SIZE,
+                (statement, friendship) -> {
+                    statement.setInt(1, friendship[0]);
+                    statement.setInt(2, friendship[1]);
+                });
+        return changed;
+    }
+
+    @Override
+    public List<User> getFriends(int userId) {
+        validateUserId(userId);
+        return jdbcTemplate.query(SELECT_USERS.formatted(
+                        "SELECT * FROM users WHERE user_id IN (SELECT friend_id FROM friendships WHERE user_id = ?)"),
+                this::mapUser, userId);
+    }
+
+    @Override
+    public List<User> getCommonFriends(int userId, int otherUserId) {
+        validateUserId(userId);
+        validateUserId(otherUserId);
+        return jdbcTemplate.query(SELECT_USERS.formatted("""
+                        SELECT * FROM users WHERE user_id IN (
+                            SELECT a.friend_id FROM friendships a
+                            JOIN friendships b ON b.friend_id = a.friend_id AND b.user_id = ?
+                            WHERE a.user_id = ?)"""),
+                this::mapUser, otherUserId, userId);
+    }
+
+    @Override
+    public int countUsers() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+    }
+
+    private void insertFriendships(List<int[]> friendships) {
+        jdbcTemplate.batchUpdate(INSERT_FRIENDSHIP, friendships, BATCH_SIZE, (statement, friendship) -> {
+            statement.setInt(1, friendship[0]);
+            statement.setInt(2, friendship[1]);
+            statement.setInt(3, friendship[0]);
+            statement.setInt(4, friendship[1]);
+        });
+    }
+
+    private void validateUserId(int id) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE user_id = ?", Integer.class, id);
+        if (count == null || count == 0) {
+            throw userNotFound(id);
+        }
+    }
+
+    /**
+     * Блокирует строки пользователей до конца транзакции, всегда в порядке возрастания id.
+     */
+    private void lockUsers(int... ids) {
+        int[] sorted = IntSet.of(ids).toArray();
+        List<Integer> locked = jdbcTemplate.query(
+                "SELECT user_id FROM users WHERE user_id = ANY (?) ORDER BY user_id FOR UPDATE",
+                statement -> statement.setArray(1, JdbcRows.toSqlArray(statement, sorted)),
+                (rs, rowNum) -> rs.getInt("user_id"));
+        if (locked.size() < sorted.length) {
+            int missing = IntStream.of(sorted)
+                    .filter(id -> !locked.contains(id))
+                    .findFirst()
+                    .orElseThrow();
+            throw userNotFound(missing);
+        }
+    }
+
+    private static void setUser(PreparedStatement statement, User user) throws SQLException {
+        statement.setString(1, user.getEmail());
+        statement.setString(2, user.getLogin());
+        statement.setString(3, user.getName());
+        statement.setDate(4, JdbcRows.toDate(user.getBirthday()));
+    }
+
+    private User mapUser(ResultSet rs, int rowNum) throws SQLException {
+        return User.builder()
+                .id(rs.getInt("user_id"))
+                .email(rs.getString("email"))
+                .login(rs.getString("login"))
+                .name(rs.getString("name"))
+                .birthday(JdbcRows.getLocalDate(rs, "birthday"))
+                .friends(JdbcRows.getIntSet(rs, "friends"))
+                .build();
+    }
+
+    private ResourceNotFoundException userNotFound(int id) {
+        return new ResourceNotFoundException("Пользователь c id %d не найден".formatted(id));
+    }
+}
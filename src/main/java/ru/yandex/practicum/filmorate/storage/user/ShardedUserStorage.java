@@ -0,0 +1,208 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище пользователей в памяти, разбитое на независимые шарды: у каждого свои карта пользователей и блокировки.
+ * Как и в {@link ru.yandex.practicum.filmorate.storage.film.ShardedFilmStorage}, пользователь с id {@code k}
+ * живет в шарде {@code (k - 1) mod n}. Дружба между пользователями разных шардов меняется под блокировками
+ * обоих, которые захватываются по возрастанию номера шарда, а внутри шарда — по порядку полос
+ * {@link ru.yandex.practicum.filmorate.storage.StripedLock}, поэтому встречные операции не блокируют друг друга.
+ */
+public class ShardedUserStorage implements UserStorage {
+
+    private static final Comparator<User> BY_ID = Comparator.comparingInt(User::getId);
+
+    private final InMemoryUserStorage[] shards;
+    private final AtomicInteger id = new AtomicInteger(1);
+
+    public ShardedUserStorage(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shardCount);
+        }
+        shards = new InMemoryUserStorage[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new InMemoryUserStorage();
+        }
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return streamUsers()
+                .sorted(BY_ID)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getUsers(int afterId, int limit) {
+        return Arrays.stream(shards)
+                .flatMap(shard -> shard.getUsers(afterId, limit).stream())
+                .sorted(BY_ID)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Пользователи идут по шардам, внутри шарда — по возрастанию id.
+     */
+    @Override
+    public Stream<User> streamUsers() {
+        return Arrays.stream(shards).flatMap(InMemoryUserStorage::streamUsers);
+    }
+
+    @Override
+    public User addUser(User user) {
+        int userId = id.getAndIncrement();
+        return shard(userId).insertUser(user.withId(userId));
+    }
+
+    /**
+     * Пакет получает подряд идущие id одним обращением к счетчику и расходится по шардам.
+     */
+    @Override
+    public List<User> addUsers(List<User> users) {
+        int next = id.getAndAdd(users.size());
+        List<User> added = new ArrayList<>(users.size());
+        for (User user : users) {
+            int userId = next++;
+            added.add(shard(userId).insertUser(user.withId(userId)));
+        }
+        return added;
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return shard(user.getId()).updateUser(user);
+    }
+
+    @Override
+    public User validateUserName(User user) {
+        return shards[0].validateUserName(user);
+    }
+
+    @Override
+    public User getUserById(int id) {
+        return shard(id).getUserById(id);
+    }
+
+    @Override
+    public List<User> getUsersByIds(int[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            User user = shard(id).findUser(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        return changeFriendship(userId, friendId, true);
+    }
+
+    @Override
+    public boolean deleteFriend(int userId, int friendId) {
+        return changeFriendship(userId, friendId, false);
+    }
+
+    /**
+     * Блокировки пользователя и всех друзей из пакета берутся один раз: по возрастанию номера шарда,
+     * внутри шарда — по порядку полос. Сторона пользователя применяется одним слиянием.
+     */
+    @Override
+    public boolean[] updateFriends(int userId, int[] friendIds, boolean[] friends) {
+        int[] ids = Arrays.copyOf(friendIds, friendIds.length + 1);
+        ids[friendIds.length] = userId;
+        int[][] locked = new int[shards.length][];
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                int shard = i;
+                locked[i] = shards[i].lockAll(Arrays.stream(ids).filter(id -> shardIndex(id) == shard).toArray());
+            }
+            for (int id : ids) {
+                shard(id).getUserById(id);
+            }
+            boolean[] changed = shard(userId).setFriends(userId, friendIds, friends);
+            for (int i = 0; i < friendIds.length; i++) {
+                if (changed[i]) {
+                    shard(friendIds[i]).setFriend(friendIds[i], userId, friends[i]);
+                }
+            }
+            return changed;
+        } finally {
+            for (int i = shards.length - 1; i >= 0; i--) {
+                if (locked[i] != null) {
+                    shards[i].unlockAll(locked[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<User> getFriends(int userId) {
+        return getUsersByIds(getUserById(userId).getFriends().toArray());
+    }
+
+    @Override
+    public List<User> getCommonFriends(int userId, int otherUserId) {
+        IntSet friends = getUserById(userId).getFriends();
+        IntSet otherFriends = getUserById(otherUserId).getFriends();
+        return getUsersByIds(friends.intersect(otherFriends).toArray());
+    }
+
+    @Override
+    public int countUsers() {
+        int count = 0;
+        for (InMemoryUserStorage shard : shards) {
+            count += shard.countUsers();
+        }
+        return count;
+    }
+
+    private boolean changeFriendship(int userId, int friendId, boolean friends) {
+        int userShard = shardIndex(userId);
+        int friendShard = shardIndex(friendId);
+        if (userShard == friendShard) {
+            InMemoryUserStorage shard = shards[userShard];
+            return friends ? shard.addFriend(userId, friendId) : shard.deleteFriend(userId, friendId);
+        }
+        Lock userLock = shards[userShard].lockFor(userId);
+        Lock friendLock = shards[friendShard].lockFor(friendId);
+        Lock first = userShard < friendShard ? userLock : friendLock;
+        Lock second = userShard < friendShard ? friendLock : userLock;
+        first.lock();
+        second.lock();
+        try {
+            shards[userShard].getUserById(userId);
+            shards[friendShard].getUserById(friendId);
+            if (!shards[userShard].setFriend(userId, friendId, friends)) {
+                return false;
+            }
+            shards[friendShard].setFriend(friendId, userId, friends);
+            return true;
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    private InMemoryUserStorage shard(int userId) {
+        return shards[shardIndex(userId)];
+    }
+
+    private int shardIndex(int userId) {
+        return Math.floorMod(userId - 1, shards.length);
+    }
+}
@@ -1,19 +1,61 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import io.micrometer.core.annotation.Timed;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+@Timed(value = "filmorate.storage", histogram = true)
 public interface UserStorage {
 
     List<User> getAllUsers();
 
+    List<User> getUsers(int afterId, int limit);
+
+    Stream<User> streamUsers();
+
+    /**
+     * Друзья из тела пользователя не сохраняются: дружба меняется только через {@link #addFriend},
+     * {@link #deleteFriend} и {@link #updateFriends}, которые пишут обе стороны.
+     */
     User addUser(User user);
 
+    /**
+     * Массовое добавление: пользователи получают id в порядке списка.
+     */
+    List<User> addUsers(List<User> users);
+
+    /**
+     * Меняет только поля самого пользователя, сохраненные друзья остаются прежними.
+     */
     User updateUser(User user);
 
     User validateUserName(User user);
 
     User getUserById(int id);
 
+    /**
+     * Пользователи с указанными id за один проход в порядке ids, отсутствующие id пропускаются.
+     */
+    List<User> getUsersByIds(int[] ids);
+
+    boolean addFriend(int userId, int friendId);
+
+    boolean deleteFriend(int userId, int friendId);
+
+    /**
+     * Пакет изменений дружбы одного пользователя: friends[i] добавляет или удаляет friendIds[i],
+     * операции применяются по порядку.
+     *
+     * @return для каждой операции, изменила ли она что-нибудь
+     */
+    boolean[] updateFriends(int userId, int[] friendIds, boolean[] friends);
+
+    List<User> getFriends(int userId);
+
+    List<User> getCommonFriends(int userId, int otherUserId);
+
+    int countUsers();
+
 }
@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ResourceNotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.wal.BinarySnapshot;
+import ru.yandex.practicum.filmorate.storage.wal.UserSnapshotCodec;
+import ru.yandex.practicum.filmorate.storage.wal.JsonSnapshot;
+import ru.yandex.practicum.filmorate.storage.wal.SnapshotTrigger;
+import ru.yandex.practicum.filmorate.storage.wal.WalProperties;
+import ru.yandex.practicum.filmorate.storage.wal.WalRecord;
+import ru.yandex.practicum.filmorate.storage.wal.WriteAheadLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище пользователей в памяти, которое переживает перезапуск: каждое изменение пишется в журнал,
+ * периодически состояние сохраняется снимком. При старте загружается снимок и применяется хвост журнала.
+ * Снимок двоичный ({@link BinarySnapshot}), JSON-снимок прежних версий читается, если двоичного еще нет.
+ * Как и в {@code WalFilmStorage}, изменение становится видно только после надежной записи в журнал.
+ */
+@Slf4j
+public class WalUserStorage extends InMemoryUserStorage implements Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final Path snapshotFile;
+    private final Path jsonSnapshotFile;
+    private final BinarySnapshot<User> snapshotFormat = new BinarySnapshot<>(new UserSnapshotCodec());
+    private final int loadParallelism;
+    private final WriteAheadLog wal;
+    private final SnapshotTrigger snapshotTrigger;
+    private final ReadWriteLock publishing = new ReentrantReadWriteLock();
+    private volatile boolean recovering;
+
+    WalUserStorage(WalProperties properties, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.snapshotFile = properties.directory().resolve("users.snapshot");
+        this.jsonSnapshotFile = properties.directory().resolve("users.snapshot.json");
+        this.loadParallelism = properties.loadParallelism();
+        this.wal = new WriteAheadLog(properties.directory(), "users", objectMapper, properties.fsync(),
+                properties.fsyncInterval(), properties.groupCommitSize());
+        this.snapshotTrigger = new SnapshotTrigger("users", wal, properties.snapshotEvery());
+    }
+
+    /**
+     * Открывает хранилище и восстанавливает его из снимка и журнала. Восстановление идет уже после
+     * конструктора, чтобы переопределяемые методы не вызывались на недостроенном объекте.
+     */
+    public static WalUserStorage open(WalProperties properties, ObjectMapper objectMapper) throws IOException {
+        WalUserStorage storage = new WalUserStorage(properties, objectMapper);
+        try {
+            storage.recover();
+        } catch (IOException | RuntimeException e) {
+            storage.close();
+            throw e;
+        }
+        return storage;
+    }
+
+    @Override
+    public User addUser(User user) {
+        return commit(() -> super.addUser(user));
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return commit(() -> super.updateUser(user));
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        return commit(() -> super.addFriend(userId, friendId));
+    }
+
+    @Override
+    public boolean deleteFriend(int userId, int friendId) {
+        return commit(() -> super.deleteFriend(userId, friendId));
+    }
+
+    @Override
+    public boolean[] updateFriends(int userId, int[] friendIds, boolean[] friends) {
+        return commit(() -> super.updateFriends(userId, friendIds, friends));
+    }
+
+    public void snapshot() throws IOException {
+        long segment;
+        publishing.writeLock().lock();
+        try {
+            segment = wal.rotate();
+        } finally {
+            publishing.writeLock().unlock();
+        }
+        try (Stream<User> users = streamUsers()) {
+            Iterator<User> iterator = users.iterator();
+            snapshotFormat.write(snapshotFile, segment, iterator);
+        }
+        Files.deleteIfExists(jsonSnapshotFile);
+        wal.deleteSegmentsBefore(segment);
+        log.info("Сохранен снимок пользователей, журнал обрезан до сегмента {}", segment);
+    }
+
+    @Override
+    public void close() {
+        snapshotTrigger.close();
+        wal.close();
+    }
+
+    @Override
+    protected void onUserSaved(User user) {
+        if (!recovering) {
+            wal.awaitDurable(wal.submit(WalRecord.saveUser(user)));
+        }
+    }
+
+    @Override
+    protected void onFriendshipChanged(int userId, int friendId, boolean friends) {
+        if (!recovering) {
+            wal.awaitDurable(wal.submit(WalRecord.friendship(userId, friendId, friends)));
+        }
+    }
+
+    /**
+     * Записи всего пакета сбрасываются на диск одним коммитом.
+     */
+    @Override
+    protected void onFriendshipsChanged(int userId, int[] friendIds, boolean[] friends, boolean[] changed) {
+        if (recovering) {
+            return;
+        }
+        long lsn = 0;
+        for (int i = 0; i < friendIds.length; i++) {
+            if (changed[i]) {
+                lsn = wal.submit(WalRecord.friendship(userId, friendIds[i], friends[i]));
+            }
+        }
+        wal.awaitDurable(lsn);
+    }
+
+    /**
+     * Выполняет изменение так, что снимок не начнет новый сегмент между записью в журнал и публикацией.
+     */
+    private <T> T commit(Supplier<T> change) {
+        T result;
+        publishing.readLock().lock();
+        try {
+            result = change.get();
+        } finally {
+            publishing.readLock().unlock();
+        }
+        snapshotTrigger.afterCommit(this::snapshot);
+        return result;
+    }
+
+    private void recover() throws IOException {
+        recovering = true;
+        try {
+            long segment = Files.exists(snapshotFile)
+                    ? snapshotFormat.read(snapshotFile, loadParallelism, this::restoreUser)
+                    : JsonSnapshot.read(objectMapper, jsonSnapshotFile, User.class, this::restoreUser);
+            long replayed = wal.replay(segment, this::apply);
+            log.info("Восстановлено пользователей: {}, применено записей журнала: {}", getAllUsers().size(), replayed);
+        } finally {
+            recovering = false;
+        }
+    }
+
+    private void apply(WalRecord record) {
+        try {
+            switch (record.type()) {
+                case SAVE_USER -> restoreUser(record.user());
+                case FRIEND -> super.addFriend(record.id(), record.otherId());
+                case UNFRIEND -> super.deleteFriend(record.id(), record.otherId());
+                default -> log.warn("Неожиданная запись в журнале пользователей: {}", record.type());
+            }
+        } catch (ResourceNotFoundException e) {
+            log.warn("Запись журнала {} пропущена: {}", record.type(), e.getMessage());
+        }
+    }
+}
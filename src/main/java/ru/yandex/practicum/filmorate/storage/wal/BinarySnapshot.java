@@ -0,0 +1,180 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Двоичный снимок состояния хранилища с фиксированной раскладкой:
+ * <pre>
+ * заголовок:  magic(int) версия(int) первый сегмент журнала(long)
+ * сегменты:   записи сущностей подряд, не больше entitiesPerSegment в каждом
+ * оглавление: на каждый сегмент смещение(long) длина(long) число записей(int)
+ * хвост:      смещение оглавления(long) число сегментов(int) magic(int)
+ * </pre>
+ * При чтении каждый сегмент отображается в память и разбирается отдельной задачей,
+ * поэтому загрузка большого снимка масштабируется по ядрам и не копирует файл в кучу целиком.
+ */
+public final class BinarySnapshot<T> {
+
+    public static final int DEFAULT_ENTITIES_PER_SEGMENT = 16_384;
+
+    private static final int MAGIC = 0x464C4D53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int TABLE_ENTRY_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final SnapshotCodec<T> codec;
+    private final int entitiesPerSegment;
+
+    public BinarySnapshot(SnapshotCodec<T> codec) {
+        this(codec, DEFAULT_ENTITIES_PER_SEGMENT);
+    }
+
+    public BinarySnapshot(SnapshotCodec<T> codec, int entitiesPerSegment) {
+        if (entitiesPerSegment <= 0) {
+            throw new IllegalArgumentException("Размер сегмента снимка должен быть положительным");
+        }
+        this.codec = codec;
+        this.entitiesPerSegment = entitiesPerSegment;
+    }
+
+    public void write(Path file, long segment, Iterator<T> entities) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        List<SegmentInfo> segments = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(segment).flip());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+            DataOutputStream out = new DataOutputStream(bytes);
+            while (entities.hasNext()) {
+                bytes.reset();
+                int count = 0;
+                while (count < entitiesPerSegment && entities.hasNext()) {
+                    codec.write(out, entities.next());
+                    count++;
+                }
+                out.flush();
+                long offset = channel.position();
+                writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()));
+                segments.add(new SegmentInfo(offset, bytes.size(), count));
+            }
+
+            long tableOffset = channel.position();
+            ByteBuffer table = ByteBuffer.allocate(segments.size() * TABLE_ENTRY_SIZE + TRAILER_SIZE);
+            for (SegmentInfo info : segments) {
+                table.putLong(info.offset()).putLong(info.length()).putInt(info.count());
+            }
+            table.putLong(tableOffset).putInt(segments.size()).putInt(MAGIC);
+            writeFully(channel, table.flip());
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Разбирает сегменты снимка параллельно, consumer вызывается из нескольких потоков.
+     *
+     * @return первый сегмент журнала после снимка или 0, если снимка еще нет
+     */
+    public long read(Path file, int parallelism, Consumer<T> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw corrupted(file, "файл короче заголовка");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw corrupted(file, "неизвестный формат");
+            }
+            long segment = header.getLong();
+
+            ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - TRAILER_SIZE, TRAILER_SIZE);
+            long tableOffset = trailer.getLong();
+            int segmentCount = trailer.getInt();
+            if (trailer.getInt() != MAGIC || segmentCount < 0
+                    || tableOffset + (long) segmentCount * TABLE_ENTRY_SIZE != size - TRAILER_SIZE) {
+                throw corrupted(file, "оглавление не совпадает с размером файла");
+            }
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, tableOffset,
+                    (long) segmentCount * TABLE_ENTRY_SIZE);
+            List<MappedByteBuffer> buffers = new ArrayList<>(segmentCount);
+            int[] counts = new int[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long offset = table.getLong();
+                long length = table.getLong();
+                counts[i] = table.getInt();
+                if (offset < HEADER_SIZE || length < 0 || offset + length > tableOffset) {
+                    throw corrupted(file, "сегмент %d выходит за границы файла".formatted(i));
+                }
+                buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+            }
+            decode(file, buffers, counts, parallelism, consumer);
+            return segment;
+        }
+    }
+
+    private void decode(Path file, List<MappedByteBuffer> buffers, int[] counts, int parallelism,
+                        Consumer<T> consumer) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.submit(() -> IntStream.range(0, buffers.size()).parallel().forEach(i -> {
+                ByteBuffer buffer = buffers.get(i);
+                try {
+                    for (int j = 0; j < counts[i]; j++) {
+                        consumer.accept(codec.read(buffer));
+                    }
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    throw new UncheckedIOException(corrupted(file, "сегмент %d не разбирается".formatted(i)));
+                }
+                if (buffer.hasRemaining()) {
+                    throw new UncheckedIOException(corrupted(file, "в сегменте %d лишние байты".formatted(i)));
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Загрузка снимка %s прервана".formatted(file), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IOException("Не удалось загрузить снимок %s".formatted(file), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static IOException corrupted(Path file, String reason) {
+        return new IOException("Снимок %s поврежден: %s".formatted(file, reason));
+    }
+
+    private record SegmentInfo(long offset, long length, int count) {
+    }
+}
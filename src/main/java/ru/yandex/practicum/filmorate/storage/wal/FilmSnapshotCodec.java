@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Запись фильма: id, продолжительность, дата релиза, название, описание, лайки.
+ */
+public class FilmSnapshotCodec implements SnapshotCodec<Film> {
+
+    @Override
+    public void write(DataOutput out, Film film) throws IOException {
+        out.writeInt(film.getId());
+        out.writeInt(film.getDuration());
+        SnapshotCodec.writeDate(out, film.getReleaseDate());
+        SnapshotCodec.writeString(out, film.getName());
+        SnapshotCodec.writeString(out, film.getDescription());
+        SnapshotCodec.writeIntSet(out, film.getLikedByUsers());
+    }
+
+    @Override
+    public Film read(ByteBuffer buffer) {
+        return Film.builder()
+                .id(buffer.getInt())
+                .duration(buffer.getInt())
+                .releaseDate(SnapshotCodec.readDate(buffer))
+                .name(SnapshotCodec.readString(buffer))
+                .description(SnapshotCodec.readString(buffer))
+                .likedByUsers(SnapshotCodec.readIntSet(buffer))
+                .build();
+    }
+}
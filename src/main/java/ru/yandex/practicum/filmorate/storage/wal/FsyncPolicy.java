@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+/**
+ * Когда журнал сбрасывает данные на диск через fsync.
+ */
+public enum FsyncPolicy {
+    /**
+     * После каждой группы записей; операция завершается только после fsync.
+     */
+    ALWAYS,
+    /**
+     * Не чаще заданного интервала; операция завершается после записи в файл,
+     * при сбое ОС можно потерять изменения за последний интервал.
+     */
+    INTERVAL,
+    /**
+     * Никогда; сброс на диск остается на усмотрение ОС.
+     */
+    NONE
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Снимок состояния хранилища в JSON: {@code {"segment": N, "entities": [...]}},
+ * где N — первый сегмент журнала, который нужно применить поверх снимка.
+ * Файл сначала пишется во временный и затем атомарно переименовывается.
+ */
+public final class JsonSnapshot {
+
+    private JsonSnapshot() {
+    }
+
+    public static <T> void write(ObjectMapper objectMapper, Path file, long segment, Iterator<T> entities)
+            throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("segment", segment);
+            generator.writeArrayFieldStart("entities");
+            while (entities.hasNext()) {
+                writer.writeValue(generator, entities.next());
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return первый сегмент журнала после снимка или 0, если снимка еще нет
+     */
+    public static <T> long read(ObjectMapper objectMapper, Path file, Class<T> type, Consumer<T> consumer)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long segment = 0;
+        try (InputStream in = Files.newInputStream(file);
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, file);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("segment".equals(field)) {
+                    segment = parser.getLongValue();
+                } else if ("entities".equals(field)) {
+                    expect(parser.currentToken(), JsonToken.START_ARRAY, file);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        consumer.accept(objectMapper.readValue(parser, type));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return segment;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, Path file) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Снимок %s поврежден: ожидался %s, получен %s".formatted(file, expected, actual));
+        }
+    }
+}
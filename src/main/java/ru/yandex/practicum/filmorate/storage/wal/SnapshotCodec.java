@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Двоичное представление сущности в снимке {@link BinarySnapshot}.
+ * Поврежденные данные при чтении дают {@link java.nio.BufferUnderflowException}
+ * или {@link IllegalArgumentException}.
+ */
+public interface SnapshotCodec<T> {
+
+    long NO_DATE = Long.MIN_VALUE;
+
+    void write(DataOutput out, T entity) throws IOException;
+
+    T read(ByteBuffer buffer);
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[checkLength(buffer, length, Byte.BYTES)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    static LocalDate readDate(ByteBuffer buffer) {
+        long epochDay = buffer.getLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    static void writeIntSet(DataOutput out, IntSet set) throws IOException {
+        int[] values = set == null ? new int[0] : set.toArray();
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static IntSet readIntSet(ByteBuffer buffer) {
+        int[] values = new int[checkLength(buffer, buffer.getInt(), Integer.BYTES)];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return IntSet.ofSorted(values);
+    }
+
+    /**
+     * Длина из снимка не должна быть отрицательной и выходить за остаток буфера,
+     * иначе поврежденный снимок привел бы к огромному массиву вместо ошибки разбора.
+     */
+    private static int checkLength(ByteBuffer buffer, int length, int elementBytes) {
+        if (length < 0 || length > buffer.remaining() / elementBytes) {
+            throw new IllegalArgumentException("Длина %d выходит за пределы записи, осталось %d байт"
+                    .formatted(length, buffer.remaining()));
+        }
+        return length;
+    }
+}
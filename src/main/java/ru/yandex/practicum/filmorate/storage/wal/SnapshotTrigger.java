@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Запускает снимок в фоне, когда в журнале накопилось заданное число записей.
+ * Одновременно выполняется не больше одного снимка.
+ */
+@Slf4j
+public class SnapshotTrigger implements Closeable {
+
+    private final String name;
+    private final WriteAheadLog wal;
+    private final long snapshotEvery;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor;
+
+    public SnapshotTrigger(String name, WriteAheadLog wal, long snapshotEvery) {
+        this.name = name;
+        this.wal = wal;
+        this.snapshotEvery = snapshotEvery;
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "snapshot-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void afterCommit(Snapshotter snapshotter) {
+        if (snapshotEvery > 0 && wal.recordsSinceRotation() >= snapshotEvery && running.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    snapshotter.snapshot();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Не удалось сохранить снимок {}", name, e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Снимок {} не завершился за минуту", name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Snapshotter {
+        void snapshot() throws IOException;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Запись пользователя: id, день рождения, email, логин, имя, друзья.
+ */
+public class UserSnapshotCodec implements SnapshotCodec<User> {
+
+    @Override
+    public void write(DataOutput out, User user) throws IOException {
+        out.writeInt(user.getId());
+        SnapshotCodec.writeDate(out, user.getBirthday());
+        SnapshotCodec.writeString(out, user.getEmail());
+        SnapshotCodec.writeString(out, user.getLogin());
+        SnapshotCodec.writeString(out, user.getName());
+        SnapshotCodec.writeIntSet(out, user.getFriends());
+    }
+
+    @Override
+    public User read(ByteBuffer buffer) {
+        return User.builder()
+                .id(buffer.getInt())
+                .birthday(SnapshotCodec.readDate(buffer))
+                .email(SnapshotCodec.readString(buffer))
+                .login(SnapshotCodec.readString(buffer))
+                .name(SnapshotCodec.readString(buffer))
+                .friends(SnapshotCodec.readIntSet(buffer))
+                .build();
+    }
+}
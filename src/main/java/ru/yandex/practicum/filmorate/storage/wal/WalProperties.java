@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки хранилища с журналом, префикс {@code filmorate.storage.wal}.
+ *
+ * @param directory            каталог для журналов и снимков
+ * @param fsync                политика сброса журнала на диск
+ * @param fsyncInterval        интервал fsync для политики {@link FsyncPolicy#INTERVAL}
+ * @param groupCommitSize      максимальное число записей, которые пишутся на диск одной группой
+ * @param snapshotEvery        после скольких записей журнала делать снимок и обрезать журнал
+ * @param snapshotLoadThreads  сколько потоков разбирают снимок при старте, 0 — по числу ядер
+ */
+@ConfigurationProperties(prefix = "filmorate.storage.wal")
+public record WalProperties(
+        @DefaultValue("data") Path directory,
+        @DefaultValue("always") FsyncPolicy fsync,
+        @DefaultValue("50ms") Duration fsyncInterval,
+        @DefaultValue("1024") int groupCommitSize,
+        @DefaultValue("100000") long snapshotEvery,
+        @DefaultValue("0") int snapshotLoadThreads) {
+
+    public int loadParallelism() {
+        return snapshotLoadThreads > 0 ? snapshotLoadThreads : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+/**
+ * Запись журнала. Все записи идемпотентны: повторное применение к состоянию,
+ * которое уже содержит изменение, ничего не меняет.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WalRecord(Type type, Film film, User user, Integer id, Integer otherId) {
+
+    public enum Type {
+        SAVE_FILM,
+        LIKE,
+        UNLIKE,
+        SAVE_USER,
+        FRIEND,
+        UNFRIEND
+    }
+
+    public static WalRecord saveFilm(Film film) {
+        return new WalRecord(Type.SAVE_FILM, film, null, null, null);
+    }
+
+    public static WalRecord like(int filmId, int userId, boolean liked) {
+        return new WalRecord(liked ? Type.LIKE : Type.UNLIKE, null, null, filmId, userId);
+    }
+
+    public static WalRecord saveUser(User user) {
+        return new WalRecord(Type.SAVE_USER, null, user, null, null);
+    }
+
+    public static WalRecord friendship(int userId, int friendId, boolean friends) {
+        return new WalRecord(friends ? Type.FRIEND : Type.UNFRIEND, null, null, userId, friendId);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.storage.film.WalFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.WalUserStorage;
+
+import java.io.IOException;
+
+@Configuration
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "wal")
+@EnableConfigurationProperties(WalProperties.class)
+public class WalStorageConfig {
+
+    @Bean
+    public WalFilmStorage filmStorage(WalProperties properties, ObjectMapper objectMapper) throws IOException {
+        return WalFilmStorage.open(properties, objectMapper);
+    }
+
+    @Bean
+    public WalUserStorage userStorage(WalProperties properties, ObjectMapper objectMapper) throws IOException {
+        return WalUserStorage.open(properties, objectMapper);
+    }
+}
@@ -0,0 +1,390 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Журнал изменений, который только дописывается. Записи хранятся построчно в JSON в файлах-сегментах
+ * {@code <name>-<номер>.wal}; каждое открытие журнала и каждый снимок начинают новый сегмент.
+ * <p>
+ * Записи из разных потоков собираются фоновым потоком в группы и пишутся на диск одним вызовом
+ * (group commit), а fsync выполняется один раз на группу в соответствии с {@link FsyncPolicy}.
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+
+    private static final String SUFFIX = ".wal";
+    private static final Entry CLOSE = new Entry(-1, null, null);
+
+    private final Path directory;
+    private final String name;
+    private final ObjectMapper objectMapper;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int groupCommitSize;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+
+    private final Lock submitLock = new ReentrantLock();
+    private final Lock durableLock = new ReentrantLock();
+    private final Condition durableChanged = durableLock.newCondition();
+    private final AtomicLong recordsSinceRotation = new AtomicLong();
+
+    private volatile long lastLsn;
+    private volatile long durableLsn;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private FileChannel channel;
+    private volatile long segment;
+    private long lastFsyncNanos;
+    private boolean unsynced;
+
+    public WriteAheadLog(Path directory, String name, ObjectMapper objectMapper, FsyncPolicy fsyncPolicy,
+                         Duration fsyncInterval, int groupCommitSize) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        this.objectMapper = objectMapper;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.groupCommitSize = groupCommitSize;
+        this.queue = new ArrayBlockingQueue<>(groupCommitSize * 4);
+
+        Files.createDirectories(directory);
+        List<Long> segments = segments();
+        this.segment = segments.isEmpty() ? 1 : segments.getLast() + 1;
+        this.channel = open(segment);
+        this.lastFsyncNanos = System.nanoTime();
+
+        this.writer = new Thread(this::writeLoop, "wal-" + name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Ставит запись в очередь на запись и возвращает ее номер. Порядок номеров совпадает с порядком записей в файле,
+     * поэтому вызывающий код должен ставить записи об одной сущности под ее блокировкой.
+     */
+    public long submit(WalRecord record) {
+        byte[] line = serialize(record);
+        submitLock.lock();
+        try {
+            checkWritable();
+            long lsn = lastLsn + 1;
+            put(new Entry(lsn, line, null));
+            lastLsn = lsn;
+            recordsSinceRotation.incrementAndGet();
+            return lsn;
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    /**
+     * Ждет, пока запись с указанным номером и все предыдущие будут записаны в соответствии с политикой fsync.
+     */
+    public void awaitDurable(long lsn) {
+        durableLock.lock();
+        try {
+            while (durableLsn < lsn) {
+                checkFailure();
+                durableChanged.awaitUninterruptibly();
+            }
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Ждет, пока будут записаны все записи, поставленные в очередь до вызова.
+     */
+    public void flush() {
+        awaitDurable(lastLsn);
+    }
+
+    /**
+     * Закрывает текущий сегмент и начинает новый. Все записи, поставленные до вызова, попадают в старые сегменты.
+     *
+     * @return номер нового сегмента
+     */
+    public long rotate() {
+        CompletableFuture<Long> rotation = new CompletableFuture<>();
+        submitLock.lock();
+        try {
+            checkWritable();
+            put(new Entry(lastLsn, null, rotation));
+            recordsSinceRotation.set(0);
+        } finally {
+            submitLock.unlock();
+        }
+        return rotation.join();
+    }
+
+    public long recordsSinceRotation() {
+        return recordsSinceRotation.get();
+    }
+
+    /**
+     * Применяет записи из сегментов начиная с {@code fromSegment}. Оборванная при сбое запись в конце сегмента
+     * и все, что после нее, пропускаются.
+     *
+     * @return число примененных записей
+     */
+    public long replay(long fromSegment, Consumer<WalRecord> consumer) throws IOException {
+        long replayed = 0;
+        for (long number : segments()) {
+            if (number < fromSegment || number >= segment) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(file(number), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    WalRecord record;
+                    try {
+                        record = objectMapper.readValue(line, WalRecord.class);
+                    } catch (JsonProcessingException e) {
+                        log.warn("Журнал {}: поврежденная запись в сегменте {}, остаток сегмента пропущен", name, number);
+                        break;
+                    }
+                    consumer.accept(record);
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    public void deleteSegmentsBefore(long number) throws IOException {
+        for (long existing : segments()) {
+            if (existing < number) {
+                Files.deleteIfExists(file(existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        submitLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            put(CLOSE);
+        } finally {
+            submitLock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(groupCommitSize);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                Entry first = fsyncPolicy == FsyncPolicy.INTERVAL && unsynced
+                        ? queue.poll(fsyncIntervalNanos, TimeUnit.NANOSECONDS)
+                        : queue.take();
+                if (first == null) {
+                    syncIfDue();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, groupCommitSize - 1);
+
+                long last = durableLsn;
+                for (Entry entry : batch) {
+                    if (entry == CLOSE) {
+                        stop = true;
+                    } else if (entry.rotation() != null) {
+                        write(buffer);
+                        rotateSegment(entry.rotation());
+                    } else if (failure == null) {
+                        buffer.write(entry.data());
+                    }
+                    last = Math.max(last, entry.lsn());
+                }
+                write(buffer);
+                if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                    sync();
+                } else if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                    syncIfDue();
+                }
+                if (failure == null) {
+                    publishDurable(last);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop = true;
+            } catch (IOException e) {
+                fail(e);
+            } finally {
+                batch.clear();
+            }
+        }
+        try {
+            sync();
+            channel.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void write(ByteArrayOutputStream buffer) throws IOException {
+        if (buffer.size() == 0 || failure != null) {
+            buffer.reset();
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        buffer.reset();
+        unsynced = true;
+    }
+
+    private void rotateSegment(CompletableFuture<Long> rotation) throws IOException {
+        if (failure != null) {
+            rotation.completeExceptionally(failure);
+            return;
+        }
+        try {
+            sync();
+            channel.close();
+            segment++;
+            channel = open(segment);
+            rotation.complete(segment);
+        } catch (IOException e) {
+            rotation.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void syncIfDue() throws IOException {
+        if (unsynced && System.nanoTime() - lastFsyncNanos >= fsyncIntervalNanos) {
+            sync();
+        }
+    }
+
+    private void sync() throws IOException {
+        if (unsynced && failure == null && fsyncPolicy != FsyncPolicy.NONE) {
+            channel.force(false);
+            lastFsyncNanos = System.nanoTime();
+        }
+        unsynced = false;
+    }
+
+    private void publishDurable(long lsn) {
+        durableLock.lock();
+        try {
+            durableLsn = lsn;
+            durableChanged.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void fail(IOException e) {
+        log.error("Журнал {}: ошибка записи, дальнейшие изменения отклоняются", name, e);
+        failure = e;
+        durableLock.lock();
+        try {
+            durableChanged.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Журнал %s: ожидание записи прервано".formatted(name), e);
+        }
+    }
+
+    private void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("Журнал %s закрыт".formatted(name));
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Журнал %s недоступен для записи".formatted(name), failure);
+        }
+    }
+
+    private byte[] serialize(WalRecord record) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(record);
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Не удалось сериализовать запись журнала %s".formatted(record.type()), e);
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(file(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path file(long number) {
+        return directory.resolve("%s-%020d%s".formatted(name, number, SUFFIX));
+    }
+
+    private List<Long> segments() throws IOException {
+        String prefix = name + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(file -> file.startsWith(prefix) && file.endsWith(SUFFIX))
+                    .map(file -> file.substring(prefix.length(), file.length() - SUFFIX.length()))
+                    .filter(number -> number.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private record Entry(long lsn, byte[] data, CompletableFuture<Long> rotation) {
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.trending;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+
+/**
+ * Тренды получают лайки из конвейера событий, топы пересчитываются в фоне раз в
+ * {@code filmorate.trending.refresh-interval}.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(TrendingProperties.class)
+@RequiredArgsConstructor
+public class TrendingConfig implements SchedulingConfigurer {
+
+    private final TrendingProperties properties;
+    private final EventPipeline eventPipeline;
+
+    @Bean
+    public TrendingFilms trendingFilms() {
+        TrendingFilms trendingFilms = new TrendingFilms(properties.topSize());
+        eventPipeline.subscribe(trendingFilms);
+        return trendingFilms;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        TrendingFilms trendingFilms = trendingFilms();
+        registrar.addFixedDelayTask(trendingFilms::refresh, properties.refreshInterval());
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.trending;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.events.EventSubscriber;
+import ru.yandex.practicum.filmorate.events.FilmorateEvent;
+import ru.yandex.practicum.filmorate.events.LikeEvent;
+import ru.yandex.practicum.filmorate.util.IntCounter;
+import ru.yandex.practicum.filmorate.util.RingCounter;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Лайки фильмов по времени для трендов. Запись — инкремент в минутном и часовом кольце фильма без блокировок;
+ * фоновый {@link #refresh()} сворачивает кольца в готовый топ каждого окна, и чтение только копирует его начало.
+ * Окно в час считается по минутам, окна в сутки и неделю — по часам, включая текущий неполный час.
+ * Снятый лайк вычитается из текущего интервала, так что в окне считается прирост лайков за это время.
+ */
+@Slf4j
+public class TrendingFilms implements EventSubscriber {
+
+    private static final int MINUTE_MILLIS = 60_000;
+    private static final int MINUTES = 60;
+    private static final TrendingWindow[] WINDOWS = TrendingWindow.values();
+    private static final int[] MINUTE_LENGTHS = {MINUTES};
+    private static final int[] HOUR_LENGTHS = {
+            (int) TrendingWindow.DAY.getDuration().toHours(),
+            (int) TrendingWindow.WEEK.getDuration().toHours()};
+
+    private final Clock clock;
+    private final int topSize;
+    private final Map<Integer, FilmLikes> films = new ConcurrentHashMap<>();
+    private volatile Map<TrendingWindow, int[]> tops;
+
+    public TrendingFilms(int topSize) {
+        this(Clock.systemUTC(), topSize);
+    }
+
+    public TrendingFilms(Clock clock, int topSize) {
+        this.clock = clock;
+        this.topSize = topSize;
+        this.tops = toTops(new int[WINDOWS.length][0]);
+    }
+
+    /**
+     * Лайки приходят из конвейера событий, время лайка — время его обработки.
+     */
+    @Override
+    public void onEvents(List<FilmorateEvent> events) {
+        for (FilmorateEvent event : events) {
+            if (event instanceof LikeEvent like) {
+                record(like.filmId(), like.liked() ? 1 : -1);
+            }
+        }
+    }
+
+    public void record(int filmId, int delta) {
+        FilmLikes likes = films.get(filmId);
+        if (likes == null) {
+            likes = films.computeIfAbsent(filmId, id -> new FilmLikes(
+                    new RingCounter(MINUTES), new RingCounter(HOUR_LENGTHS[HOUR_LENGTHS.length - 1])));
+        }
+        int minute = currentMinute();
+        likes.minutes().add(minute, delta);
+        likes.hours().add(minute / MINUTES, delta);
+    }
+
+    /**
+     * До {@code count} фильмов окна из последнего пересчитанного топа, не больше {@code topSize}.
+     */
+    public int[] getTop(TrendingWindow window, int count) {
+        int[] top = tops.get(window);
+        return Arrays.copyOf(top, Math.min(count, top.length));
+    }
+
+    /**
+     * Пересчитывает топы всех окон одним проходом по фильмам: у каждого фильма оба кольца читаются по разу.
+     * Фильмы без прироста лайков за неделю убираются; лайк, пришедший в момент удаления, может потеряться.
+     */
+    public void refresh() {
+        int minute = currentMinute();
+        int hour = minute / MINUTES;
+        IntCounter[] counters = new IntCounter[WINDOWS.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new IntCounter();
+        }
+        int[] minuteSums = new int[MINUTE_LENGTHS.length];
+        int[] hourSums = new int[HOUR_LENGTHS.length];
+        films.forEach((filmId, likes) -> {
+            likes.hours().sum(hour, HOUR_LENGTHS, hourSums);
+            if (hourSums[hourSums.length - 1] <= 0) {
+                films.remove(filmId, likes);
+                return;
+            }
+            likes.minutes().sum(minute, MINUTE_LENGTHS, minuteSums);
+            add(counters[TrendingWindow.HOUR.ordinal()], filmId, minuteSums[0]);
+            add(counters[TrendingWindow.DAY.ordinal()], filmId, hourSums[0]);
+            add(counters[TrendingWindow.WEEK.ordinal()], filmId, hourSums[1]);
+        });
+        int[][] refreshed = new int[WINDOWS.length][];
+        for (int i = 0; i < counters.length; i++) {
+            refreshed[i] = counters[i].top(topSize);
+        }
+        tops = toTops(refreshed);
+        log.debug("Тренды пересчитаны, фильмов с лайками за неделю: {}", films.size());
+    }
+
+    private static void add(IntCounter counter, int filmId, int count) {
+        if (count > 0) {
+            counter.add(filmId, count);
+        }
+    }
+
+    private int currentMinute() {
+        return (int) (clock.millis() / MINUTE_MILLIS);
+    }
+
+    private static Map<TrendingWindow, int[]> toTops(int[][] tops) {
+        Map<TrendingWindow, int[]> result = new EnumMap<>(TrendingWindow.class);
+        for (TrendingWindow window : WINDOWS) {
+            result.put(window, tops[window.ordinal()]);
+        }
+        return result;
+    }
+
+    private record FilmLikes(RingCounter minutes, RingCounter hours) {
+    }
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.trending;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки трендов, префикс {@code filmorate.trending}.
+ *
+ * @param topSize          сколько фильмов держать в готовом топе каждого окна
+ * @param refreshInterval  как часто топы пересчитываются из счетчиков
+ */
+@ConfigurationProperties(prefix = "filmorate.trending")
+public record TrendingProperties(
+        @DefaultValue("100") int topSize,
+        @DefaultValue("10s") Duration refreshInterval) {
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.trending;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Окно, за которое считаются лайки в трендах.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TrendingWindow {
+    HOUR("1h", Duration.ofHours(1)),
+    DAY("24h", Duration.ofDays(1)),
+    WEEK("7d", Duration.ofDays(7));
+
+    private final String label;
+    private final Duration duration;
+
+    public static TrendingWindow of(String label) {
+        return Arrays.stream(values())
+                .filter(window -> window.label.equals(label))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("Неизвестное окно трендов %s, допустимы: %s".formatted(
+                        label, Arrays.stream(values()).map(TrendingWindow::getLabel).collect(Collectors.joining(", ")))));
+    }
+}
@@ -0,0 +1,225 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+/**
+ * Счетчики по положительным int-ключам (id сущностей) на открытой адресации, без упаковки в Integer.
+ * Не потокобезопасен: рассчитан на один проход одного потока.
+ */
+public final class IntCounter {
+
+    private static final int EMPTY = 0;
+    private static final int EXCLUDED = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+
+    public IntCounter() {
+        this(16);
+    }
+
+    public IntCounter(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        counts = new int[capacity];
+    }
+
+    public void increment(int key) {
+        add(key, 1);
+    }
+
+    public void add(int key, int delta) {
+        int index = slot(key);
+        counts[index] += delta;
+    }
+
+    /**
+     * Исключает ключ из {@link #top(int)}: его счетчик остается отрицательным при любом числе увеличений,
+     * так что проверять исключения на каждом увеличении не нужно.
+     */
+    public void exclude(int key) {
+        int index = slot(key);
+        counts[index] = EXCLUDED;
+    }
+
+    /**
+     * Удаляет ключ вместе со счетчиком. Ячейка освобождается сдвигом следующих за ней ключей цепочки
+     * назад (backward shift), без надгробий, поэтому поиск и размер таблицы не деградируют
+     * при частых удалениях.
+     *
+     * @return счетчик удаленного ключа или 0, если ключа не было
+     */
+    public int remove(int key) {
+        int mask = keys.length - 1;
+        int hole = mix(key) & mask;
+        while (keys[hole] != key) {
+            if (keys[hole] == EMPTY) {
+                return 0;
+            }
+            hole = (hole + 1) & mask;
+        }
+        int removed = Math.max(counts[hole], 0);
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        counts[hole] = 0;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return Math.max(counts[index], 0);
+            }
+            index = (index + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Обходит ключи с положительными счетчиками в произвольном порядке.
+     */
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && counts[i] > 0) {
+                action.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    /**
+     * До {@code k} ключей с наибольшими счетчиками: по убыванию счетчика, при равенстве по возрастанию ключа.
+     * Отбор идет через кучу на {@code k} элементов за O(n log k), без сортировки всех ключей.
+     */
+    public int[] top(int k) {
+        long[] heap = new long[Math.min(k, size)];
+        int heapSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY || counts[i] <= 0) {
+                continue;
+            }
+            long rank = rank(keys[i], counts[i]);
+            if (heapSize < heap.length) {
+                heap[heapSize] = rank;
+                siftUp(heap, heapSize++);
+            } else if (heapSize > 0 && rank > heap[0]) {
+                heap[0] = rank;
+                siftDown(heap, heapSize);
+            }
+        }
+        Arrays.sort(heap, 0, heapSize);
+        int[] result = new int[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            result[i] = (int) (Integer.MAX_VALUE - (heap[heapSize - 1 - i] & Integer.MAX_VALUE));
+        }
+        return result;
+    }
+
+    /**
+     * Счетчик в старших битах, ключ в младших в обратном порядке: чем больше число, тем выше ключ в выдаче.
+     */
+    private static long rank(int key, int count) {
+        return (long) count << 32 | (Integer.MAX_VALUE - key);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Ячейка ключа; новый ключ занимает свободную ячейку с нулевым счетчиком.
+     */
+    private int slot(int key) {
+        if (key <= EMPTY) {
+            throw new IllegalArgumentException("Ключ должен быть положительным: " + key);
+        }
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+            return slot(key);
+        }
+        keys[index] = key;
+        size++;
+        return index;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = mix(oldKeys[i]) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                counts[index] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int count);
+    }
+}
@@ -0,0 +1,651 @@
+package ru.yandex.practicum.filmorate.util;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Множество id без упаковки в Integer, которое заменяется новой неизменяемой версией при каждом изменении.
+ * Читатели всегда видят целостную версию, писатели не блокируют друг друга и читателей.
+ * Малые множества (до {@value #ARRAY_LIMIT} элементов) хранятся отсортированным массивом int, который копируется
+ * целиком. Большие делятся на блоки по старшим 16 битам, как в roaring bitmap: блок — отсортированный массив
+ * младших бит или битовая карта, если в нем больше {@value #BLOCK_ARRAY_LIMIT} элементов. Изменение большого
+ * множества копирует только один блок и оглавление блоков.
+ * Замороженное множество ({@link #freeze()}) не меняется вовсе: его можно отдавать наружу как часть неизменяемой
+ * версии сущности, а новые версии строятся через {@link #with(int)}, {@link #without(int)} и их пакетные варианты.
+ * В JSON сериализуется как обычный массив чисел.
+ */
+public final class IntSet {
+
+    private static final int[] EMPTY = new int[0];
+    private static final int GALLOP_THRESHOLD = 8;
+    private static final int ARRAY_LIMIT = 1024;
+    private static final int BLOCK_ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+    private static final AtomicReferenceFieldUpdater<IntSet, Object> VALUES =
+            AtomicReferenceFieldUpdater.newUpdater(IntSet.class, Object.class, "values");
+
+    /**
+     * int[] для малого множества или {@link Blocks} для большого.
+     */
+    private volatile Object values;
+    private volatile boolean frozen;
+
+    public IntSet() {
+        this.values = EMPTY;
+    }
+
+    private IntSet(Object values) {
+        this.values = values;
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static IntSet of(int... values) {
+        if (values == null || values.length == 0) {
+            return new IntSet();
+        }
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new IntSet(fromSorted(size == sorted.length ? sorted : Arrays.copyOf(sorted, size)));
+    }
+
+    /**
+     * Забирает массив без копирования, если он уже строго возрастает, иначе работает как {@link #of(int...)}.
+     */
+    public static IntSet ofSorted(int[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i - 1] >= values[i]) {
+                return of(values);
+            }
+        }
+        return values.length == 0 ? new IntSet() : new IntSet(fromSorted(values));
+    }
+
+    public static IntSet copyOf(IntSet other) {
+        return other == null ? new IntSet() : new IntSet(other.values);
+    }
+
+    /**
+     * Замороженная версия множества: само множество, если оно уже заморожено, иначе замороженная копия.
+     * Копия разделяет с оригиналом неизменяемое содержимое и создается за O(1).
+     */
+    public static IntSet frozenCopyOf(IntSet other) {
+        if (other == null) {
+            return new IntSet().freeze();
+        }
+        return other.frozen ? other : new IntSet(other.values).freeze();
+    }
+
+    public boolean add(int value) {
+        checkNotFrozen();
+        while (true) {
+            Object current = values;
+            Object updated = with(current, value);
+            if (updated == current) {
+                return false;
+            }
+            if (VALUES.compareAndSet(this, current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean remove(int value) {
+        checkNotFrozen();
+        while (true) {
+            Object current = values;
+            Object updated = without(current, value);
+            if (updated == current) {
+                return false;
+            }
+            if (VALUES.compareAndSet(this, current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Замороженное множество с добавленным значением. Если значение уже есть, возвращается это же множество,
+     * поэтому по ссылке видно, изменилось ли что-нибудь.
+     */
+    public IntSet with(int value) {
+        Object current = values;
+        Object updated = with(current, value);
+        return updated == current ? this : new IntSet(updated).freeze();
+    }
+
+    /**
+     * Замороженное множество без значения. Если значения нет, возвращается это же множество.
+     */
+    public IntSet without(int value) {
+        Object current = values;
+        Object updated = without(current, value);
+        return updated == current ? this : new IntSet(updated).freeze();
+    }
+
+    /**
+     * Замороженное объединение с {@code added} за одно слияние отсортированных массивов, O(n + k).
+     * Если добавлять нечего, возвращается это же множество.
+     */
+    public IntSet withAll(IntSet added) {
+        int[] current = sorted(values);
+        int[] other = sorted(added.values);
+        int[] result = new int[current.length + other.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < current.length && j < other.length) {
+            if (current[i] < other[j]) {
+                result[size++] = current[i++];
+            } else if (current[i] > other[j]) {
+                result[size++] = other[j++];
+            } else {
+                result[size++] = current[i++];
+                j++;
+            }
+        }
+        if (size == i && j == other.length) {
+            return this;
+        }
+        System.arraycopy(current, i, result, size, current.length - i);
+        size += current.length - i;
+        System.arraycopy(other, j, result, size, other.length - j);
+        size += other.length - j;
+        return new IntSet(fromSorted(Arrays.copyOf(result, size))).freeze();
+    }
+
+    /**
+     * Замороженная разность с {@code removed} за один проход по отсортированным массивам, O(n + k).
+     * Если удалять нечего, возвращается это же множество.
+     */
+    public IntSet withoutAll(IntSet removed) {
+        int[] current = sorted(values);
+        int[] other = sorted(removed.values);
+        int[] result = new int[current.length];
+        int size = 0;
+        int j = 0;
+        for (int value : current) {
+            while (j < other.length && other[j] < value) {
+                j++;
+            }
+            if (j == other.length || other[j] != value) {
+                result[size++] = value;
+            }
+        }
+        if (size == current.length) {
+            return this;
+        }
+        return new IntSet(fromSorted(Arrays.copyOf(result, size))).freeze();
+    }
+
+    /**
+     * Замороженное множество после пакета добавлений и удалений, примененных по порядку: после i-й операции
+     * {@code values[i]} есть в множестве, если {@code present[i]}, и нет иначе. В {@code changed[i]} записывается,
+     * изменила ли множество i-я операция. Операции группируются по значению сортировкой, а их итог применяется
+     * одним слиянием и одним проходом разности, O(n + k log k). Если ничего не изменилось, возвращается это же
+     * множество.
+     */
+    public IntSet withChanges(int[] values, boolean[] present, boolean[] changed) {
+        long[] order = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            order[i] = (long) values[i] << 32 | i;
+        }
+        Arrays.sort(order);
+        int[] added = new int[values.length];
+        int[] removed = new int[values.length];
+        int addedCount = 0;
+        int removedCount = 0;
+        int next = 0;
+        while (next < order.length) {
+            int value = (int) (order[next] >> 32);
+            boolean original = contains(value);
+            boolean current = original;
+            for (; next < order.length && (int) (order[next] >> 32) == value; next++) {
+                int index = (int) order[next];
+                changed[index] = present[index] != current;
+                current = present[index];
+            }
+            if (current != original) {
+                if (current) {
+                    added[addedCount++] = value;
+                } else {
+                    removed[removedCount++] = value;
+                }
+            }
+        }
+        return withAll(ofSorted(Arrays.copyOf(added, addedCount)))
+                .withoutAll(ofSorted(Arrays.copyOf(removed, removedCount)));
+    }
+
+    /**
+     * Запрещает дальнейшие изменения через {@link #add(int)} и {@link #remove(int)} и возвращает это же множество.
+     */
+    public IntSet freeze() {
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public boolean contains(int value) {
+        Object current = values;
+        return current instanceof int[] array ? Arrays.binarySearch(array, value) >= 0
+                : ((Blocks) current).contains(value);
+    }
+
+    public int size() {
+        Object current = values;
+        return current instanceof int[] array ? array.length : ((Blocks) current).size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Пересечение двух множеств. При сопоставимых размерах массивы сливаются за O(n + m),
+     * при сильном перекосе элементы меньшего ищутся в большем галопирующим поиском за O(n log(m / n)),
+     * а в большом множестве из блоков — прямым поиском по блокам.
+     */
+    public IntSet intersect(IntSet other) {
+        Object left = values;
+        Object right = other.values;
+        if (sizeOf(left) > sizeOf(right)) {
+            Object swap = left;
+            left = right;
+            right = swap;
+        }
+        int[] small = sorted(left);
+        if (small.length == 0) {
+            return new IntSet();
+        }
+        int[] result = new int[small.length];
+        int size;
+        if (right instanceof Blocks blocks) {
+            size = 0;
+            for (int value : small) {
+                if (blocks.contains(value)) {
+                    result[size++] = value;
+                }
+            }
+        } else {
+            int[] large = (int[]) right;
+            size = small.length * GALLOP_THRESHOLD < large.length
+                    ? gallopIntersect(small, large, result)
+                    : mergeIntersect(small, large, result);
+        }
+        return new IntSet(fromSorted(size == result.length ? result : Arrays.copyOf(result, size)));
+    }
+
+    public int[] toArray() {
+        Object current = values;
+        return current instanceof int[] array ? array.clone() : ((Blocks) current).toArray();
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(sorted(values));
+    }
+
+    public void forEach(IntConsumer action) {
+        Object current = values;
+        if (current instanceof int[] array) {
+            for (int value : array) {
+                action.accept(value);
+            }
+        } else {
+            ((Blocks) current).forEach(action);
+        }
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Множество заморожено и не может быть изменено");
+        }
+    }
+
+    private static Object fromSorted(int[] sorted) {
+        return sorted.length <= ARRAY_LIMIT ? sorted : Blocks.ofSorted(sorted);
+    }
+
+    /**
+     * Элементы по возрастанию: массив малого множества отдается как есть, его нельзя менять.
+     */
+    private static int[] sorted(Object values) {
+        return values instanceof int[] array ? array : ((Blocks) values).toArray();
+    }
+
+    private static int sizeOf(Object values) {
+        return values instanceof int[] array ? array.length : ((Blocks) values).size;
+    }
+
+    private static Object with(Object values, int value) {
+        if (values instanceof Blocks blocks) {
+            return blocks.with(value);
+        }
+        int[] array = (int[]) values;
+        int index = Arrays.binarySearch(array, value);
+        if (index >= 0) {
+            return array;
+        }
+        return fromSorted(inserted(array, -index - 1, value));
+    }
+
+    private static Object without(Object values, int value) {
+        if (values instanceof int[] array) {
+            int index = Arrays.binarySearch(array, value);
+            return index < 0 ? array : removed(array, index);
+        }
+        Blocks blocks = (Blocks) values;
+        Blocks updated = blocks.without(value);
+        if (updated == blocks) {
+            return blocks;
+        }
+        return updated.size > ARRAY_LIMIT ? updated : updated.toArray();
+    }
+
+    private static int[] inserted(int[] values, int insertion, int value) {
+        int[] updated = new int[values.length + 1];
+        System.arraycopy(values, 0, updated, 0, insertion);
+        updated[insertion] = value;
+        System.arraycopy(values, insertion, updated, insertion + 1, values.length - insertion);
+        return updated;
+    }
+
+    private static int[] removed(int[] values, int index) {
+        int[] updated = values.length == 1 ? EMPTY : new int[values.length - 1];
+        System.arraycopy(values, 0, updated, 0, index);
+        System.arraycopy(values, index + 1, updated, index, values.length - index - 1);
+        return updated;
+    }
+
+    private static int mergeIntersect(int[] left, int[] right, int[] result) {
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return size;
+    }
+
+    private static int gallopIntersect(int[] small, int[] large, int[] result) {
+        int size = 0;
+        int from = 0;
+        for (int value : small) {
+            int bound = 1;
+            while (from + bound < large.length && large[from + bound] < value) {
+                bound <<= 1;
+            }
+            int index = Arrays.binarySearch(large, from + (bound >> 1), Math.min(from + bound + 1, large.length), value);
+            if (index >= 0) {
+                result[size++] = value;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+            if (from >= large.length) {
+                break;
+            }
+        }
+        return size;
+    }
+
+    @JsonValue
+    private int[] values() {
+        return sorted(values);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntSet other)) {
+            return false;
+        }
+        Object left = values;
+        Object right = other.values;
+        return sizeOf(left) == sizeOf(right) && Arrays.equals(sorted(left), sorted(right));
+    }
+
+    @Override
+    public int hashCode() {
+        Object current = values;
+        if (current instanceof int[] array) {
+            return Arrays.hashCode(array);
+        }
+        int[] hash = {1};
+        ((Blocks) current).forEach(value -> hash[0] = 31 * hash[0] + value);
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(sorted(values));
+    }
+
+    /**
+     * Неизменяемое большое множество: блоки по старшим 16 битам значения в порядке возрастания.
+     * Блок — char[] отсортированных младших бит или битовая карта long[1024] на все 65536 младших значений.
+     */
+    private static final class Blocks {
+
+        private final int[] keys;
+        private final Object[] blocks;
+        private final int[] cardinalities;
+        private final int size;
+
+        private Blocks(int[] keys, Object[] blocks, int[] cardinalities, int size) {
+            this.keys = keys;
+            this.blocks = blocks;
+            this.cardinalities = cardinalities;
+            this.size = size;
+        }
+
+        static Blocks ofSorted(int[] values) {
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] >> 16 != values[i - 1] >> 16) {
+                    count++;
+                }
+            }
+            int[] keys = new int[count];
+            Object[] blocks = new Object[count];
+            int[] cardinalities = new int[count];
+            int block = 0;
+            int from = 0;
+            for (int i = 1; i <= values.length; i++) {
+                if (i == values.length || values[i] >> 16 != values[from] >> 16) {
+                    keys[block] = values[from] >> 16;
+                    blocks[block] = block(values, from, i);
+                    cardinalities[block] = i - from;
+                    block++;
+                    from = i;
+                }
+            }
+            return new Blocks(keys, blocks, cardinalities, values.length);
+        }
+
+        boolean contains(int value) {
+            int index = Arrays.binarySearch(keys, value >> 16);
+            return index >= 0 && contains(blocks[index], (char) value);
+        }
+
+        Blocks with(int value) {
+            int key = value >> 16;
+            char low = (char) value;
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                int insertion = -index - 1;
+                return new Blocks(IntSet.inserted(keys, insertion, key), inserted(blocks, insertion, new char[]{low}),
+                        IntSet.inserted(cardinalities, insertion, 1), size + 1);
+            }
+            Object block = blocks[index];
+            Object updated;
+            if (block instanceof char[] array) {
+                int position = Arrays.binarySearch(array, low);
+                if (position >= 0) {
+                    return this;
+                }
+                updated = array.length < BLOCK_ARRAY_LIMIT ? inserted(array, -position - 1, low) : bitmap(array);
+            } else {
+                updated = block;
+            }
+            if (updated instanceof long[] bitmap) {
+                if (isSet(bitmap, low)) {
+                    return this;
+                }
+                updated = bitmap == block ? bitmap.clone() : bitmap;
+                ((long[]) updated)[low >>> 6] |= 1L << low;
+            }
+            return replaced(index, updated, cardinalities[index] + 1, size + 1);
+        }
+
+        Blocks without(int value) {
+            int index = Arrays.binarySearch(keys, value >> 16);
+            char low = (char) value;
+            if (index < 0 || !contains(blocks[index], low)) {
+                return this;
+            }
+            int cardinality = cardinalities[index] - 1;
+            if (cardinality == 0) {
+                return new Blocks(IntSet.removed(keys, index), removed(blocks, index),
+                        IntSet.removed(cardinalities, index), size - 1);
+            }
+            Object updated;
+            if (blocks[index] instanceof char[] array) {
+                updated = removed(array, Arrays.binarySearch(array, low));
+            } else {
+                long[] bitmap = ((long[]) blocks[index]).clone();
+                bitmap[low >>> 6] &= ~(1L << low);
+                updated = cardinality > BLOCK_ARRAY_LIMIT ? bitmap : array(bitmap, cardinality);
+            }
+            return replaced(index, updated, cardinality, size - 1);
+        }
+
+        int[] toArray() {
+            int[] result = new int[size];
+            int[] position = {0};
+            forEach(value -> result[position[0]++] = value);
+            return result;
+        }
+
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < keys.length; i++) {
+                int base = keys[i] << 16;
+                if (blocks[i] instanceof char[] array) {
+                    for (char low : array) {
+                        action.accept(base | low);
+                    }
+                } else {
+                    long[] bitmap = (long[]) blocks[i];
+                    for (int word = 0; word < bitmap.length; word++) {
+                        for (long bits = bitmap[word]; bits != 0; bits &= bits - 1) {
+                            action.accept(base | word << 6 | Long.numberOfTrailingZeros(bits));
+                        }
+                    }
+                }
+            }
+        }
+
+        private Blocks replaced(int index, Object block, int cardinality, int size) {
+            Object[] updatedBlocks = blocks.clone();
+            updatedBlocks[index] = block;
+            int[] updatedCardinalities = cardinalities.clone();
+            updatedCardinalities[index] = cardinality;
+            return new Blocks(keys, updatedBlocks, updatedCardinalities, size);
+        }
+
+        private static Object block(int[] values, int from, int to) {
+            if (to - from > BLOCK_ARRAY_LIMIT) {
+                long[] bitmap = new long[BITMAP_WORDS];
+                for (int i = from; i < to; i++) {
+                    bitmap[(char) values[i] >>> 6] |= 1L << values[i];
+                }
+                return bitmap;
+            }
+            char[] array = new char[to - from];
+            for (int i = from; i < to; i++) {
+                array[i - from] = (char) values[i];
+            }
+            return array;
+        }
+
+        private static boolean contains(Object block, char low) {
+            return block instanceof char[] array ? Arrays.binarySearch(array, low) >= 0 : isSet((long[]) block, low);
+        }
+
+        private static boolean isSet(long[] bitmap, char low) {
+            return (bitmap[low >>> 6] & 1L << low) != 0;
+        }
+
+        private static long[] bitmap(char[] array) {
+            long[] bitmap = new long[BITMAP_WORDS];
+            for (char low : array) {
+                bitmap[low >>> 6] |= 1L << low;
+            }
+            return bitmap;
+        }
+
+        private static char[] array(long[] bitmap, int cardinality) {
+            char[] array = new char[cardinality];
+            int size = 0;
+            for (int word = 0; word < bitmap.length; word++) {
+                for (long bits = bitmap[word]; bits != 0; bits &= bits - 1) {
+                    array[size++] = (char) (word << 6 | Long.numberOfTrailingZeros(bits));
+                }
+            }
+            return array;
+        }
+
+        private static char[] inserted(char[] values, int insertion, char value) {
+            char[] updated = new char[values.length + 1];
+            System.arraycopy(values, 0, updated, 0, insertion);
+            updated[insertion] = value;
+            System.arraycopy(values, insertion, updated, insertion + 1, values.length - insertion);
+            return updated;
+        }
+
+        private static char[] removed(char[] values, int index) {
+            char[] updated = new char[values.length - 1];
+            System.arraycopy(values, 0, updated, 0, index);
+            System.arraycopy(values, index + 1, updated, index, values.length - index - 1);
+            return updated;
+        }
+
+        private static Object[] inserted(Object[] values, int insertion, Object value) {
+            Object[] updated = new Object[values.length + 1];
+            System.arraycopy(values, 0, updated, 0, insertion);
+            updated[insertion] = value;
+            System.arraycopy(values, insertion, updated, insertion + 1, values.length - insertion);
+            return updated;
+        }
+
+        private static Object[] removed(Object[] values, int index) {
+            Object[] updated = new Object[values.length - 1];
+            System.arraycopy(values, 0, updated, 0, index);
+            System.arraycopy(values, index + 1, updated, index, values.length - index - 1);
+            return updated;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Кольцо счетчиков по последовательным интервалам времени (минутам, часам) без блокировок.
+ * Ячейка хранит номер интервала в старших 32 битах и счетчик в младших и меняется одним CAS:
+ * ячейка интервала, вышедшего за пределы кольца, обнуляется при первой записи, а при чтении не учитывается.
+ */
+public final class RingCounter {
+
+    private final AtomicLongArray cells;
+
+    public RingCounter(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Размер кольца должен быть положительным: " + size);
+        }
+        cells = new AtomicLongArray(size);
+    }
+
+    /**
+     * Прибавляет {@code delta} к интервалу. Если поток прочитал время до смены интервала, а ячейку уже занял
+     * более поздний, значение прибавляется к нему, а не теряется.
+     */
+    public void add(int interval, int delta) {
+        int index = Math.floorMod(interval, cells.length());
+        while (true) {
+            long cell = cells.get(index);
+            int cellInterval = interval(cell);
+            long updated = cellInterval >= interval
+                    ? pack(cellInterval, count(cell) + delta)
+                    : pack(interval, delta);
+            if (cells.compareAndSet(index, cell, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Суммы счетчиков за последние {@code lengths[i]} интервалов по {@code to} включительно, за один проход
+     * по кольцу для всех длин сразу; учитываются только интервалы, которые еще в кольце.
+     */
+    public void sum(int to, int[] lengths, int[] sums) {
+        Arrays.fill(sums, 0);
+        for (int i = 0; i < cells.length(); i++) {
+            long cell = cells.get(i);
+            int age = to - interval(cell);
+            int count = count(cell);
+            if (age < 0 || count == 0) {
+                continue;
+            }
+            for (int j = 0; j < lengths.length; j++) {
+                if (age < lengths[j]) {
+                    sums[j] += count;
+                }
+            }
+        }
+    }
+
+    private static long pack(int interval, int count) {
+        return (long) interval << 32 | (count & 0xFFFFFFFFL);
+    }
+
+    private static int interval(long cell) {
+        return (int) (cell >>> 32);
+    }
+
+    private static int count(long cell) {
+        return (int) cell;
+    }
+}
@@ -0,0 +1,38 @@
+CREATE TABLE IF NOT EXISTS users (
+    user_id  INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email    VARCHAR(255),
+    login    VARCHAR(255),
+    name     VARCHAR(255),
+    birthday DATE
+);
+
+CREATE TABLE IF NOT EXISTS films (
+    film_id      INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255),
+    description  VARCHAR(200),
+    release_date DATE,
+    duration     INTEGER,
+    -- число лайков хранится рядом с фильмом, чтобы топ отвечался по индексу без агрегации
+    likes_count  INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS films_popularity_idx ON films (likes_count DESC, film_id);
+CREATE INDEX IF NOT EXISTS films_release_date_idx ON films (release_date, film_id);
+CREATE INDEX IF NOT EXISTS films_duration_idx ON films (duration, film_id);
+
+CREATE TABLE IF NOT EXISTS likes (
+    film_id INTEGER NOT NULL REFERENCES films (film_id) ON DELETE CASCADE,
+    user_id INTEGER NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
+    PRIMARY KEY (film_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS likes_user_idx ON likes (user_id, film_id);
+
+-- дружба взаимная и хранится двумя строками, по одной на каждое направление
+CREATE TABLE IF NOT EXISTS friendships (
+    user_id   INTEGER NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
+    friend_id INTEGER NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
+    PRIMARY KEY (user_id, friend_id)
+);
+
+CREATE INDEX IF NOT EXISTS friendships_friend_idx ON friendships (friend_id, user_id);
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Запуск одной задачи в нескольких потоках, которые стартуют одновременно.
+ */
+public final class Concurrency {
+
+    private Concurrency() {
+    }
+
+    /**
+     * Ждет, пока задача завершится во всех потоках, и пробрасывает первую ошибку.
+     */
+    public static void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -38,10 +38,11 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldFailWhenEmailIsInvalid() {
-        User user = new User();
-        user.setEmail("invalid-email");
-        user.setLogin("validLogin");
-        user.setBirthday(LocalDate.of(1990, 1, 1));
+        User user = User.builder()
+                .email("invalid-email")
+                .login("validLogin")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
 
         Set<ConstraintViolation<User>> violations = validator.validate(user);
         assertFalse(violations.isEmpty());
@@ -51,10 +52,11 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldUseLoginWhenNameIsBlank() {
-        User user = new User();
-        user.setEmail("test@mail.ru");
-        user.setLogin("validLogin");
-        user.setBirthday(LocalDate.of(1990, 1, 1));
+        User user = User.builder()
+                .email("test@mail.ru")
+                .login("validLogin")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
 
         User newUser = userController.addUser(user);
 
@@ -64,10 +66,11 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldFailWhenLoginIsBlank() {
-        User user = new User();
-        user.setEmail("test@mail.ru");
-        user.setLogin("");
-        user.setBirthday(LocalDate.of(1990, 1, 1));
+        User user = User.builder()
+                .email("test@mail.ru")
+                .login("")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
 
         Set<ConstraintViolation<User>> violations = validator.validate(user);
         assertFalse(violations.isEmpty());
@@ -77,10 +80,11 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldFailWhenBirthdayInFuture() {
-        User user = new User();
-        user.setEmail("test@mail.ru");
-        user.setLogin("validLogin");
-        user.setBirthday(LocalDate.now().plusDays(1));
+        User user = User.builder()
+                .email("test@mail.ru")
+                .login("validLogin")
+                .birthday(LocalDate.now().plusDays(1))
+                .build();
 
         Set<ConstraintViolation<User>> violations = validator.validate(user);
         assertFalse(violations.isEmpty());
@@ -90,11 +94,12 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldFailWhenFilmNameIsBlank() {
-        Film film = new Film();
-        film.setName("");
-        film.setDescription("Valid description");
-        film.setReleaseDate(LocalDate.of(2000, 1, 1));
-        film.setDuration(120);
+        Film film = Film.builder()
+                .name("")
+                .description("Valid description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build();
 
         Set<ConstraintViolation<Film>> violations = validator.validate(film);
         assertFalse(violations.isEmpty());
@@ -104,11 +109,12 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldFailWhenDescriptionIsTooLong() {
-        Film film = new Film();
-        film.setName("Valid name");
-        film.setDescription("a".repeat(201));
-        film.setReleaseDate(LocalDate.of(2000, 1, 1));
-        film.setDuration(120);
+        Film film = Film.builder()
+                .name("Valid name")
+                .description("a".repeat(201))
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build();
 
         Set<ConstraintViolation<Film>> violations = validator.validate(film);
         assertFalse(violations.isEmpty());
@@ -118,11 +124,12 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldFailWhenDurationIsNegative() {
-        Film film = new Film();
-        film.setName("Valid name");
-        film.setDescription("Valid description");
-        film.setReleaseDate(LocalDate.of(2000, 1, 1));
-        film.setDuration(-1);
+        Film film = Film.builder()
+                .name("Valid name")
+                .description("Valid description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(-1)
+                .build();
 
         Set<ConstraintViolation<Film>> violations = validator.validate(film);
         assertFalse(violations.isEmpty());
@@ -132,11 +139,12 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldAcceptMaxLengthDescription() {
-        Film film = new Film();
-        film.setName("Valid name");
-        film.setDescription("a".repeat(200));
-        film.setReleaseDate(LocalDate.of(2000, 1, 1));
-        film.setDuration(120);
+        Film film = Film.builder()
+                .name("Valid name")
+                .description("a".repeat(200))
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build();
 
         Set<ConstraintViolation<Film>> violations = validator.validate(film);
         assertTrue(violations.isEmpty());
@@ -144,11 +152,12 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldAcceptMinimalReleaseDate() {
-        Film film = new Film();
-        film.setName("Valid name");
-        film.setDescription("Valid description");
-        film.setReleaseDate(LocalDate.of(1895, 12, 28));
-        film.setDuration(120);
+        Film film = Film.builder()
+                .name("Valid name")
+                .description("Valid description")
+                .releaseDate(LocalDate.of(1895, 12, 28))
+                .duration(120)
+                .build();
 
         Set<ConstraintViolation<Film>> violations = validator.validate(film);
         assertTrue(violations.isEmpty());
@@ -156,13 +165,14 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldThrowValidationExceptionWhenReleaseDateBefore1895() {
-        Film film = new Film();
-        film.setName("Test Film");
-        film.setDescription("Test Description");
-        film.setDuration(120);
+        Film film = Film.builder()
+                .name("Test Film")
+                .description("Test Description")
+                .duration(120)
+                .build();
 
         Exception exception = assertThrows(ValidationException.class, () ->
-                film.setReleaseDate(LocalDate.of(1895, 12, 27))
+                film.withReleaseDate(LocalDate.of(1895, 12, 27))
         );
 
         assertEquals("Дата релиза не может быть раньше 28 декабря 1895 года", exception.getMessage());
@@ -170,11 +180,12 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldThrowValidationExceptionWhenUpdateNonExistentUser() {
-        User user = new User();
-        user.setId(999);
-        user.setEmail("test@mail.ru");
-        user.setLogin("testLogin");
-        user.setBirthday(LocalDate.of(1990, 1, 1));
+        User user = User.builder()
+                .id(999)
+                .email("test@mail.ru")
+                .login("testLogin")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
 
         Exception exception = assertThrows(ResourceNotFoundException.class, () ->
                 userController.updateUser(user)
@@ -185,12 +196,13 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldThrowValidationExceptionWhenUpdateNonExistentFilm() {
-        Film film = new Film();
-        film.setId(999);
-        film.setName("Test Film");
-        film.setDescription("Test Description");
-        film.setReleaseDate(LocalDate.of(2000, 1, 1));
-        film.setDuration(120);
+        Film film = Film.builder()
+                .id(999)
+                .name("Test Film")
+                .description("Test Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build();
 
         Exception exception = assertThrows(ResourceNotFoundException.class, () ->
                 filmController.updateFilm(film)
@@ -199,12 +211,31 @@ class FilmorateApplicationTests {
         assertEquals("Фильм c id 999 не найден", exception.getMessage());
     }
 
+    @Test
+    void shouldKeepFriendsAndLikesWhenUpdatedWithoutThem() {
+        User user = userController.addUser(TestData.user());
+        User friend = userController.addUser(TestData.user());
+        userController.addUserToFriends(user.getId(), friend.getId());
+        Film film = filmController.addFilm(TestData.film());
+        filmController.addLike(film.getId(), user.getId());
+
+        User updatedUser = userController.updateUser(TestData.user().withId(user.getId()));
+        Film updatedFilm = filmController.updateFilm(TestData.film().withId(film.getId()));
+
+        assertEquals(1, updatedUser.getFriends().size());
+        assertTrue(updatedUser.getFriends().contains(friend.getId()));
+        assertTrue(userController.getUserById(user.getId()).getFriends().contains(friend.getId()));
+        assertTrue(userController.getUserById(friend.getId()).getFriends().contains(user.getId()));
+        assertTrue(updatedFilm.getLikedByUsers().contains(user.getId()));
+    }
+
     @Test
     void shouldProvideCorrectErrorMessageForEmptyEmail() {
-        User user = new User();
-        user.setEmail("");
-        user.setLogin("validLogin");
-        user.setBirthday(LocalDate.of(1990, 1, 1));
+        User user = User.builder()
+                .email("")
+                .login("validLogin")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
 
         Set<ConstraintViolation<User>> violations = validator.validate(user);
         assertFalse(violations.isEmpty());
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+/**
+ * Общие заготовки фильмов и пользователей для тестов: валидные сущности без id.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static Film film() {
+        return film("Film", LocalDate.of(2000, 1, 1), 120);
+    }
+
+    public static Film film(String name) {
+        return film(name, LocalDate.of(2000, 1, 1), 120);
+    }
+
+    public static Film film(LocalDate releaseDate, int duration) {
+        return film("Film", releaseDate, duration);
+    }
+
+    /**
+     * Фильмы с разными номерами различаются названием, датой релиза и продолжительностью.
+     */
+    public static Film film(int number) {
+        return film("Film " + number, LocalDate.of(2000, 1, 1).plusDays(number), 90 + number);
+    }
+
+    public static User user() {
+        return User.builder()
+                .email("user@mail.ru")
+                .login("login")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    /**
+     * Пользователи с разными номерами различаются email и логином.
+     */
+    public static User user(int number) {
+        return user().toBuilder()
+                .email("user%d@mail.ru".formatted(number))
+                .login("login" + number)
+                .build();
+    }
+
+    private static Film film(String name, LocalDate releaseDate, int duration) {
+        return Film.builder()
+                .name(name)
+                .description("Description")
+                .releaseDate(releaseDate)
+                .duration(duration)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.BatchAction;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.FriendOperation;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldApplyLikesInOrderAndReportEachOperation() throws Exception {
+        int first = userService.addUser(TestData.user()).getId();
+        int second = userService.addUser(TestData.user()).getId();
+        int filmId = filmService.addFilm(TestData.film()).getId();
+
+        List<BatchResult.Status> statuses = postBatch("/films/likes:batch", List.of(
+                new LikeOperation(filmId, first, BatchAction.ADD),
+                new LikeOperation(filmId, first, BatchAction.ADD),
+                new LikeOperation(filmId, second, BatchAction.ADD),
+                new LikeOperation(filmId, second, BatchAction.REMOVE),
+                new LikeOperation(filmId, 999_999, BatchAction.ADD),
+                new LikeOperation(999_999, first, BatchAction.ADD)));
+
+        assertEquals(List.of(BatchResult.Status.APPLIED, BatchResult.Status.UNCHANGED, BatchResult.Status.APPLIED,
+                BatchResult.Status.APPLIED, BatchResult.Status.NOT_FOUND, BatchResult.Status.NOT_FOUND), statuses);
+        assertEquals(IntSet.of(first), filmService.getFilmById(filmId).getLikedByUsers());
+    }
+
+    @Test
+    void shouldApplyFriendshipsSymmetrically() throws Exception {
+        int userId = userService.addUser(TestData.user()).getId();
+        int first = userService.addUser(TestData.user()).getId();
+        int second = userService.addUser(TestData.user()).getId();
+
+        List<BatchResult.Status> statuses = postBatch("/users/friends:batch", List.of(
+                new FriendOperation(userId, first, BatchAction.ADD),
+                new FriendOperation(userId, second, BatchAction.ADD),
+                new FriendOperation(second, userId, BatchAction.REMOVE),
+                new FriendOperation(userId, userId, BatchAction.ADD),
+                new FriendOperation(userId, first, BatchAction.REMOVE),
+                new FriendOperation(userId, first, BatchAction.REMOVE)));
+
+        assertEquals(List.of(BatchResult.Status.APPLIED, BatchResult.Status.APPLIED, BatchResult.Status.APPLIED,
+                BatchResult.Status.INVALID, BatchResult.Status.APPLIED, BatchResult.Status.UNCHANGED), statuses);
+        assertTrue(userService.getUserById(userId).getFriends().isEmpty());
+        assertTrue(userService.getUserById(first).getFriends().isEmpty());
+        assertTrue(userService.getUserById(second).getFriends().isEmpty());
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", userId, userId))
+                .andExpect(status().isBadRequest());
+        assertTrue(userService.getUserById(userId).getFriends().isEmpty());
+    }
+
+    @Test
+    void shouldRejectMalformedOperations() throws Exception {
+        mockMvc.perform(post("/films/likes:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"filmId\":0,\"userId\":1,\"action\":\"ADD\"}]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/users/friends:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"userId\":1,\"friendId\":2}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<BatchResult.Status> postBatch(String path, List<?> operations) throws Exception {
+        String json = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<BatchResult.Status> statuses = new ArrayList<>();
+        objectMapper.readTree(json).forEach(result ->
+                statuses.add(BatchResult.Status.valueOf(result.get("status").asText())));
+        return statuses;
+    }
+}
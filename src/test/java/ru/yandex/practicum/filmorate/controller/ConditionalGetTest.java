@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldAnswerNotModifiedUntilFilmChanges() throws Exception {
+        int filmId = filmService.addFilm(TestData.film()).getId();
+        int userId = userService.addUser(TestData.user()).getId();
+        String url = "/films/" + filmId;
+
+        MvcResult first = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        filmService.addLike(filmId, userId);
+
+        MvcResult changed = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+        Film film = objectMapper.readValue(changed.getResponse().getContentAsString(), Film.class);
+        assertTrue(film.getLikedByUsers().contains(userId));
+    }
+
+    @Test
+    void shouldChangePopularEtagOnLike() throws Exception {
+        int filmId = filmService.addFilm(TestData.film()).getId();
+        int userId = userService.addUser(TestData.user()).getId();
+        String etag = mockMvc.perform(get("/films/popular").param("count", "1000"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/films/popular").param("count", "1000").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        filmService.addLike(filmId, userId);
+
+        String json = mockMvc.perform(get("/films/popular").param("count", "1000")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Film liked = Arrays.stream(objectMapper.readValue(json, Film[].class))
+                .filter(film -> film.getId() == filmId)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, liked.getLikedByUsers().size());
+    }
+
+    @Test
+    void shouldChangeFriendsEtagWhenFriendOfFriendIsAdded() throws Exception {
+        int userId = userService.addUser(TestData.user()).getId();
+        int friendId = userService.addUser(TestData.user()).getId();
+        int otherId = userService.addUser(TestData.user()).getId();
+        userService.addUserToFriends(userId, friendId);
+        String url = "/users/" + userId + "/friends";
+
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        userService.addUserToFriends(friendId, otherId);
+
+        String json = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        User[] friends = objectMapper.readValue(json, User[].class);
+        assertEquals(1, friends.length);
+        assertTrue(friends[0].getFriends().contains(otherId));
+        mockMvc.perform(get("/users/100000/friends").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+}
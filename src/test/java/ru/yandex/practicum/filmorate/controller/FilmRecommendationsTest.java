@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FilmRecommendationsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldRecommendFilmsOfUsersWithOverlappingLikes() throws Exception {
+        int[] users = new int[3];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = userService.addUser(TestData.user(i)).getId();
+        }
+        int[] films = new int[5];
+        for (int i = 0; i < films.length; i++) {
+            films[i] = filmService.addFilm(TestData.film()).getId();
+        }
+        like(users[0], films[0], films[1]);
+        like(users[1], films[0], films[1], films[2]);
+        like(users[2], films[0], films[3]);
+
+        assertEquals(List.of(films[2], films[3]), recommendations(users[0]));
+
+        filmService.addLike(films[2], users[0]);
+        assertEquals(List.of(films[3]), recommendations(users[0]));
+
+        assertTrue(recommendations(userService.addUser(TestData.user(3)).getId()).isEmpty());
+        mockMvc.perform(get("/users/{id}/recommendations", 100_000)).andExpect(status().isNotFound());
+    }
+
+    private void like(int userId, int... filmIds) {
+        for (int filmId : filmIds) {
+            filmService.addLike(filmId, userId);
+        }
+    }
+
+    private List<Integer> recommendations(int userId) throws Exception {
+        String json = mockMvc.perform(get("/users/{id}/recommendations", userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Arrays.stream(objectMapper.readValue(json, Film[].class)).map(Film::getId).toList();
+    }
+}
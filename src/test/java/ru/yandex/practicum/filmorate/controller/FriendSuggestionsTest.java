@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FriendSuggestionsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldRankFriendsOfFriendsByMutualFriends() throws Exception {
+        int[] ids = new int[7];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = userService.addUser(TestData.user(i)).getId();
+        }
+        int user = ids[0];
+        userService.addUserToFriends(user, ids[1]);
+        userService.addUserToFriends(user, ids[2]);
+        userService.addUserToFriends(user, ids[3]);
+        userService.addUserToFriends(ids[1], ids[2]);
+        userService.addUserToFriends(ids[1], ids[4]);
+        userService.addUserToFriends(ids[2], ids[4]);
+        userService.addUserToFriends(ids[3], ids[4]);
+        userService.addUserToFriends(ids[3], ids[5]);
+        userService.addUserToFriends(ids[2], ids[6]);
+        userService.addUserToFriends(ids[5], ids[6]);
+
+        assertEquals(List.of(ids[4], ids[5], ids[6]), suggestions(user, 10));
+        assertEquals(List.of(ids[4], ids[5]), suggestions(user, 2));
+        mockMvc.perform(get("/users/{id}/friends/suggestions", user).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/{id}/friends/suggestions", 100_000))
+                .andExpect(status().isNotFound());
+    }
+
+    private List<Integer> suggestions(int userId, int limit) throws Exception {
+        String json = mockMvc.perform(get("/users/{id}/friends/suggestions", userId)
+                        .param("limit", String.valueOf(limit)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Arrays.stream(objectMapper.readValue(json, User[].class)).map(User::getId).toList();
+    }
+}
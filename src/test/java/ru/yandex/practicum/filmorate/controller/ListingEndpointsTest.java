@@ -0,0 +1,186 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.trending.TrendingFilms;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ListingEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TrendingFilms trendingFilms;
+    @Autowired
+    private EventPipeline eventPipeline;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldReturnPagesInIdOrder() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            filmService.addFilm(TestData.film());
+        }
+        List<Film> all = filmService.getAllFilms();
+        int after = all.get(1).getId();
+
+        String json = mockMvc.perform(get("/films").param("after", String.valueOf(after)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        Film[] page = objectMapper.readValue(json, Film[].class);
+
+        assertEquals(List.of(all.get(2).getId(), all.get(3).getId()),
+                Arrays.stream(page).map(Film::getId).toList());
+    }
+
+    @Test
+    void shouldReturnJsonArrayByDefault() throws Exception {
+        filmService.addFilm(TestData.film());
+
+        mockMvc.perform(get("/films"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray());
+        mockMvc.perform(get("/films").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldStreamNdjsonWhenRequested() throws Exception {
+        filmService.addFilm(TestData.film());
+        filmService.addFilm(TestData.film());
+
+        MvcResult result = mockMvc.perform(get("/films").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(filmService.getAllFilms().size(), lines.length);
+        for (String line : lines) {
+            assertNotNull(objectMapper.readValue(line, Film.class).getName());
+        }
+    }
+
+    @Test
+    void shouldFilterFilmsByReleaseDateAndDuration() throws Exception {
+        Film film = TestData.film().withReleaseDate(LocalDate.of(1931, 5, 11)).withDuration(99);
+        int filmId = filmService.addFilm(film).getId();
+
+        String json = mockMvc.perform(get("/films")
+                        .param("releasedFrom", "1931-01-01").param("releasedTo", "1931-12-31")
+                        .param("minDuration", "90").param("maxDuration", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(List.of(filmId), Arrays.stream(objectMapper.readValue(json, Film[].class)).map(Film::getId).toList());
+        mockMvc.perform(get("/films").param("minDuration", "100").param("maxDuration", "90"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectTooLargePage() throws Exception {
+        mockMvc.perform(get("/users").param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/popular").param("count", "100000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/trending").param("count", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnTrendingFilmsAfterRefresh() throws Exception {
+        int filmId = filmService.addFilm(TestData.film()).getId();
+        filmService.addLike(filmId, userService.addUser(TestData.user()).getId());
+        assertTrue(eventPipeline.flush(Duration.ofSeconds(5)));
+        trendingFilms.refresh();
+
+        String json = mockMvc.perform(get("/films/trending").param("window", "1h").param("count", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(Arrays.stream(objectMapper.readValue(json, Film[].class)).anyMatch(film -> film.getId() == filmId));
+        mockMvc.perform(get("/films/trending").param("window", "2h"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnUsersWithMostFriendsFromEvents() throws Exception {
+        List<Integer> ids = IntStream.range(0, 4).mapToObj(i -> userService.addUser(TestData.user(i)).getId()).toList();
+        int hub = ids.getFirst();
+        for (int friendId : ids.subList(1, 4)) {
+            userService.addUserToFriends(hub, friendId);
+        }
+        userService.addUserToFriends(ids.get(1), ids.get(2));
+        userService.deleteFromFriends(hub, ids.get(3));
+        assertTrue(eventPipeline.flush(Duration.ofSeconds(5)));
+
+        String json = mockMvc.perform(get("/users/popular").param("count", "1000"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<User> popular = Arrays.stream(objectMapper.readValue(json, User[].class))
+                .filter(user -> ids.contains(user.getId()))
+                .toList();
+        assertEquals(List.of(hub, ids.get(1), ids.get(2)), popular.stream().map(User::getId).toList());
+        assertEquals(List.of(2, 2, 2), popular.stream().map(user -> user.getFriends().size()).toList());
+        mockMvc.perform(get("/users/popular").param("count", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldSearchFilmsAndBoostPopularOnes() throws Exception {
+        Film first = TestData.film().withName("Квазарный рассвет");
+        int firstId = filmService.addFilm(first).getId();
+        Film second = filmService.addFilm(TestData.film().withName("Квазарный закат"));
+        int secondId = second.getId();
+        filmService.addLike(secondId, userService.addUser(TestData.user()).getId());
+
+        assertEquals(List.of(secondId, firstId), search("квазарн"));
+        assertEquals(List.of(firstId, secondId), search("рассвет квазарный"));
+
+        filmService.updateFilm(second.withName("Закат"));
+        assertEquals(List.of(firstId), search("квазарный"));
+
+        mockMvc.perform(get("/films/search").param("q", " ")).andExpect(status().isBadRequest());
+    }
+
+    private List<Integer> search(String query) throws Exception {
+        String json = mockMvc.perform(get("/films/search").param("q", query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Arrays.stream(objectMapper.readValue(json, Film[].class)).map(Film::getId).toList();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NdjsonResponsesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldWriteEmptyBodyForEmptyCollection() throws IOException {
+        assertEquals("", write(List.of()));
+    }
+
+    @Test
+    void shouldEndEveryValueWithNewLine() throws IOException {
+        assertEquals("1\n", write(List.of(1)));
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", write(List.of(new Value(1), new Value(2))));
+    }
+
+    private String write(List<?> values) throws IOException {
+        StreamingResponseBody body = NdjsonResponses.stream(objectMapper, () -> Stream.of(values.toArray()))
+                .getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private record Value(int id) {
+    }
+}
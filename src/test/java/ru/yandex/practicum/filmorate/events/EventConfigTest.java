@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(EventConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    void shouldStartPipelineWithDefaults() {
+        contextRunner.run(context -> {
+            assertNull(context.getStartupFailure());
+            assertEquals(new EventProperties(4, 8192, 256, BackpressurePolicy.BLOCK),
+                    context.getBean(EventProperties.class));
+            context.getBean(EventPipeline.class).close();
+        });
+    }
+
+    @Test
+    void shouldRejectNonPositiveSizes() {
+        for (String property : new String[]{"partitions=0", "capacity=0", "max-batch=-1"}) {
+            contextRunner.withPropertyValues("filmorate.events." + property)
+                    .run(context -> assertNotNull(context.getStartupFailure(), property));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventPipelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+    }
+
+    @Test
+    void shouldDeliverEventsOfOneKeyInOrder() throws Exception {
+        pipeline = new EventPipeline(new EventProperties(3, 64, 16, BackpressurePolicy.BLOCK), meterRegistry);
+        Map<Integer, Integer> lastSequence = new ConcurrentHashMap<>();
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        pipeline.subscribe(events -> events.forEach(event -> {
+            LikeEvent like = (LikeEvent) event;
+            Integer previous = lastSequence.put(like.filmId(), like.userId());
+            if (previous != null && previous >= like.userId()) {
+                outOfOrder.incrementAndGet();
+            }
+            received.incrementAndGet();
+        }));
+
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            int filmId = p + 1;
+            producers[p] = Thread.ofPlatform().start(() -> {
+                for (int sequence = 1; sequence <= 5_000; sequence++) {
+                    assertTrue(pipeline.publish(new LikeEvent(filmId, sequence, true)));
+                }
+            });
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(pipeline.flush(Duration.ofSeconds(10)));
+        assertEquals(20_000, received.get());
+        assertEquals(0, outOfOrder.get());
+        assertTrue(meterRegistry.get("filmorate.events.batch.size").summary().max() <= 16);
+    }
+
+    @Test
+    void shouldDropEventsWhenQueueIsFull() throws Exception {
+        pipeline = new EventPipeline(new EventProperties(1, 4, 4, BackpressurePolicy.DROP), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger received = new AtomicInteger();
+        pipeline.subscribe(events -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.addAndGet(events.size());
+        });
+
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (pipeline.publish(new LikeEvent(1, i + 1, true))) {
+                accepted++;
+            }
+        }
+        release.countDown();
+
+        assertTrue(pipeline.flush(Duration.ofSeconds(5)));
+        assertTrue(accepted < 100);
+        assertEquals(accepted, received.get());
+        assertEquals(100 - accepted, meterRegistry.get("filmorate.events.dropped").counter().count());
+    }
+
+    @Test
+    void shouldKeepDeliveringAfterSubscriberFailure() {
+        pipeline = new EventPipeline(new EventProperties(2, 16, 1, BackpressurePolicy.BLOCK), meterRegistry);
+        AtomicInteger received = new AtomicInteger();
+        pipeline.subscribe(events -> {
+            throw new IllegalStateException("сбой подписчика");
+        });
+        pipeline.subscribe(events -> received.addAndGet(events.size()));
+
+        for (int i = 1; i <= 10; i++) {
+            pipeline.publish(new LikeEvent(i, 1, true));
+        }
+
+        assertTrue(pipeline.flush(Duration.ofSeconds(5)));
+        assertEquals(10, received.get());
+        pipeline.close();
+        assertFalse(pipeline.publish(new LikeEvent(1, 1, false)));
+    }
+
+    @Test
+    void shouldDeliverEveryAcceptedEventWhenClosedDuringPublishing() throws Exception {
+        for (BackpressurePolicy policy : BackpressurePolicy.values()) {
+            pipeline = new EventPipeline(new EventProperties(2, 8, 4, policy), meterRegistry);
+            AtomicInteger received = new AtomicInteger();
+            AtomicInteger missing = new AtomicInteger();
+            pipeline.subscribe(events -> events.forEach(event -> {
+                if (event == null) {
+                    missing.incrementAndGet();
+                }
+                received.incrementAndGet();
+            }));
+            AtomicInteger accepted = new AtomicInteger();
+            AtomicBoolean closing = new AtomicBoolean();
+            CountDownLatch started = new CountDownLatch(4);
+            Thread[] producers = new Thread[4];
+            for (int p = 0; p < producers.length; p++) {
+                int filmId = p + 1;
+                producers[p] = Thread.ofPlatform().start(() -> {
+                    started.countDown();
+                    for (int sequence = 1; ; sequence++) {
+                        if (pipeline.publish(new LikeEvent(filmId, sequence, true))) {
+                            accepted.incrementAndGet();
+                        } else if (closing.get()) {
+                            return;
+                        }
+                    }
+                });
+            }
+
+            started.await();
+            Thread.sleep(20);
+            closing.set(true);
+            Thread closer = Thread.ofPlatform().start(pipeline::close);
+            closer.join(Duration.ofSeconds(10));
+            assertFalse(closer.isAlive(), "close() завис");
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertEquals(0, missing.get());
+            assertEquals(accepted.get(), received.get());
+        }
+    }
+}
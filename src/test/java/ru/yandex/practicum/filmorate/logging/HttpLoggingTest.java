@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "filmorate.logging.http.body-sample-rate=0",
+        "logbook.write.max-body-size=64"})
+@AutoConfigureMockMvc
+class HttpLoggingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private List<String> httpLog;
+
+    @BeforeEach
+    void clearLog() {
+        httpLog.clear();
+    }
+
+    @Test
+    void shouldWriteBodiesOnlyForErrorsWhenExchangeIsNotSampled() throws Exception {
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(filmJson("Film")))
+                .andExpect(status().isOk());
+        assertEquals(2, httpLog.size());
+        assertTrue(httpLog.stream().noneMatch(line -> line.contains("\"body\"")), httpLog.toString());
+
+        httpLog.clear();
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(filmJson("")))
+                .andExpect(status().isBadRequest());
+        assertEquals(2, httpLog.size());
+        assertTrue(httpLog.stream().allMatch(line -> line.contains("\"body\"")), httpLog.toString());
+        assertTrue(httpLog.getFirst().contains("..."), httpLog.getFirst());
+    }
+
+    @Test
+    void shouldSkipExcludedEndpointBodiesAndActuator() throws Exception {
+        mockMvc.perform(get("/films/{id}", 100_000)).andExpect(status().isNotFound());
+        assertTrue(httpLog.get(1).contains("\"body\""), httpLog.toString());
+
+        httpLog.clear();
+        mockMvc.perform(get("/films/popular").param("count", "0")).andExpect(status().isBadRequest());
+        assertEquals(2, httpLog.size());
+        assertFalse(httpLog.get(1).contains("\"body\""), httpLog.get(1));
+
+        httpLog.clear();
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        assertTrue(httpLog.isEmpty(), httpLog.toString());
+    }
+
+    private static String filmJson(String name) {
+        return """
+                {"name":"%s","description":"%s","releaseDate":"2000-01-01","duration":120}"""
+                .formatted(name, "x".repeat(150));
+    }
+
+    @TestConfiguration
+    static class CapturingWriterConfig {
+
+        @Bean
+        List<String> httpLog() {
+            return new CopyOnWriteArrayList<>();
+        }
+
+        @Bean
+        HttpLogWriter capturingWriter(List<String> httpLog) {
+            return new HttpLogWriter() {
+                @Override
+                public boolean isActive() {
+                    return true;
+                }
+
+                @Override
+                public void write(Precorrelation precorrelation, String request) {
+                    httpLog.add(request);
+                }
+
+                @Override
+                public void write(Correlation correlation, String response) {
+                    httpLog.add(response);
+                }
+            };
+        }
+    }
+}
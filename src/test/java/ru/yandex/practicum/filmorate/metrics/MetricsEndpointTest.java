@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void shouldExposeServiceStorageAndEndpointHistograms() throws Exception {
+        int userId = userService.addUser(TestData.user()).getId();
+        int filmId = filmService.addFilm(TestData.film()).getId();
+        mockMvc.perform(put("/films/{id}/like/{userId}", filmId, userId)).andExpect(status().isOk());
+        mockMvc.perform(get("/users/{id}/friends", userId)).andExpect(status().isOk());
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(metrics.contains("filmorate_service_seconds_bucket{class=\"FilmService\",method=\"addLike\""));
+        assertTrue(metrics.contains("filmorate_storage_seconds_count{class=\"InMemoryFilmStorage\",method=\"addLike\""));
+        assertTrue(metrics.contains("filmorate_likes_changes_total{action=\"add\""));
+        assertTrue(metrics.contains("filmorate_friends_size_count"));
+        assertTrue(metrics.contains("filmorate_catalog_size{entity=\"films\""));
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"));
+        assertFalse(metrics.contains("method=\"toString\""));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.search;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmSearchIndexTest {
+
+    private final FilmSearchIndex index = new FilmSearchIndex();
+
+    @Test
+    void shouldSplitRussianAndEnglishTextIntoLowerCaseTerms() {
+        assertEquals(List.of("ежик", "в", "тумане", "hedgehog", "1975"),
+                FilmTokenizer.tokenize("Ёжик в тумане — Hedgehog (1975)!"));
+        assertTrue(FilmTokenizer.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void shouldRankNameMatchesAboveDescriptionMatches() {
+        index.index(film(1, "Космическая одиссея", "Фильм о полете к Юпитеру"));
+        index.index(film(2, "Солярис", "Космическая станция над океаном"));
+        index.index(film(3, "Сталкер", "Путешествие в Зону"));
+
+        assertArrayEquals(new int[]{1, 2}, index.search("космическая", 10).filmIds());
+        assertArrayEquals(new int[]{2}, index.search("станция океан", 10).filmIds());
+        assertArrayEquals(new int[]{3}, index.search("СТАЛК", 10).filmIds());
+        assertArrayEquals(new int[0], index.search("сталк зона", 10).filmIds());
+        assertArrayEquals(new int[0], index.search(" ,. ", 10).filmIds());
+    }
+
+    @Test
+    void shouldReplaceTermsOfUpdatedFilm() {
+        index.index(film(1, "Matrix", "Neo wakes up"));
+        index.index(film(2, "Matrix Reloaded", "Neo returns"));
+
+        index.index(film(1, "Inception", "A dream within a dream"));
+
+        assertArrayEquals(new int[]{2}, index.search("matrix", 10).filmIds());
+        assertArrayEquals(new int[]{1}, index.search("dream", 10).filmIds());
+        assertArrayEquals(new int[]{2}, index.search("neo", 10).filmIds());
+    }
+
+    @Test
+    void shouldForgetTermsOfFilmsAfterManyUpdates() {
+        index.index(film(2, "Matrix", "Neo"));
+        for (int i = 0; i < 1_000; i++) {
+            index.index(film(1, i % 2 == 0 ? "Matrix" : "Inception", "Version " + i));
+        }
+
+        assertArrayEquals(new int[]{1}, index.search("inception", 10).filmIds());
+        assertArrayEquals(new int[]{2}, index.search("matrix", 10).filmIds());
+        assertArrayEquals(new int[]{1}, index.search("999", 10).filmIds());
+        assertArrayEquals(new int[0], index.search("998", 10).filmIds());
+    }
+
+    private static Film film(int id, String name, String description) {
+        return Film.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .build();
+    }
+}
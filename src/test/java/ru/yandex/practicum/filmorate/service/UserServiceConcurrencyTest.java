@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.events.BackpressurePolicy;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.events.EventProperties;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.http.ViewVersions;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.social.FriendCounts;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.Concurrency.runConcurrently;
+
+class UserServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private InMemoryUserStorage userStorage;
+    private EventPipeline eventPipeline;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        userStorage = new InMemoryUserStorage();
+        eventPipeline = new EventPipeline(new EventProperties(4, 1024, 64, BackpressurePolicy.BLOCK), meterRegistry);
+        userService = new UserService(userStorage, eventPipeline, new FriendCounts(), new ViewVersions(),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventPipeline.close();
+    }
+
+    @Test
+    void shouldAcceptExactlyOneOfOppositeFriendRequests() {
+        List<User> users = addUsers(200);
+        AtomicInteger accepted = new AtomicInteger();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> runConcurrently(THREADS, thread -> {
+            for (int i = 0; i + 1 < users.size(); i += 2) {
+                int first = users.get(i).getId();
+                int second = users.get(i + 1).getId();
+                try {
+                    if (thread % 2 == 0) {
+                        userService.addUserToFriends(first, second);
+                    } else {
+                        userService.addUserToFriends(second, first);
+                    }
+                    accepted.incrementAndGet();
+                } catch (ValidationException e) {
+                    // пара уже подружилась в другом потоке
+                }
+            }
+        }));
+
+        assertEquals(users.size() / 2, accepted.get());
+        assertSymmetric(users);
+    }
+
+    @Test
+    void shouldStaySymmetricUnderAddAndDeleteChurn() {
+        List<User> users = addUsers(50);
+
+        assertTimeoutPreemptively(TIMEOUT, () -> runConcurrently(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 5_000; i++) {
+                int userId = users.get(random.nextInt(users.size())).getId();
+                int friendId = users.get(random.nextInt(users.size())).getId();
+                if (userId == friendId) {
+                    continue;
+                }
+                if (random.nextBoolean()) {
+                    try {
+                        userService.addUserToFriends(userId, friendId);
+                    } catch (ValidationException e) {
+                        // дружба уже существует
+                    }
+                } else {
+                    userService.deleteFromFriends(userId, friendId);
+                }
+            }
+        }));
+
+        assertSymmetric(users);
+    }
+
+    @Test
+    void shouldNotDeadlockWhenSameUsersAreLinkedInOppositeOrder() {
+        List<User> users = addUsers(THREADS);
+
+        assertTimeoutPreemptively(TIMEOUT, () -> runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 2_000; i++) {
+                int userId = users.get((thread + i) % users.size()).getId();
+                int friendId = users.get((thread + i + 1) % users.size()).getId();
+                if (i % 2 == 0) {
+                    userService.deleteFromFriends(friendId, userId);
+                } else {
+                    try {
+                        userService.addUserToFriends(userId, friendId);
+                    } catch (ValidationException e) {
+                        // дружба уже существует
+                    }
+                }
+            }
+        }));
+
+        assertSymmetric(users);
+    }
+
+    private void assertSymmetric(List<User> users) {
+        for (User user : users) {
+            for (int friendId : userStorage.getUserById(user.getId()).getFriends().toArray()) {
+                assertTrue(userStorage.getUserById(friendId).getFriends().contains(user.getId()),
+                        "Дружба %d -> %d не взаимна".formatted(user.getId(), friendId));
+            }
+        }
+    }
+
+    private List<User> addUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(userStorage.addUser(TestData.user(i)));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.social;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.events.BackpressurePolicy;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.events.EventProperties;
+import ru.yandex.practicum.filmorate.events.FriendshipEvent;
+import ru.yandex.practicum.filmorate.events.LikeEvent;
+import ru.yandex.practicum.filmorate.http.ViewVersions;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.Concurrency.runConcurrently;
+
+class FriendCountsTest {
+
+    private static final int THREADS = 16;
+
+    private final FriendCounts friendCounts = new FriendCounts();
+
+    @Test
+    void shouldCountFriendsOfBothUsersFromEvents() {
+        friendCounts.set(1, 2);
+        friendCounts.onEvents(List.of(
+                new FriendshipEvent(1, 3, true),
+                new FriendshipEvent(4, 3, true),
+                new LikeEvent(1, 4, true),
+                new FriendshipEvent(5, 3, true)));
+        friendCounts.onEvents(List.of(new FriendshipEvent(3, 5, false)));
+
+        assertEquals(3, friendCounts.get(1));
+        assertEquals(2, friendCounts.get(3));
+        assertEquals(1, friendCounts.get(4));
+        assertEquals(0, friendCounts.get(5));
+        assertEquals(0, friendCounts.get(6));
+        assertArrayEquals(new int[]{1, 3, 4}, friendCounts.top(10));
+        assertArrayEquals(new int[]{1}, friendCounts.top(1));
+    }
+
+    @Test
+    void shouldCountFriendshipsMadeConcurrentlyThroughPipeline() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        EventPipeline eventPipeline =
+                new EventPipeline(new EventProperties(4, 1024, 64, BackpressurePolicy.BLOCK), meterRegistry);
+        eventPipeline.subscribe(friendCounts);
+        UserService userService =
+                new UserService(userStorage, eventPipeline, friendCounts, new ViewVersions(), meterRegistry);
+        User hub = userStorage.addUser(TestData.user());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < THREADS * 100; i++) {
+            users.add(userStorage.addUser(TestData.user()));
+        }
+
+        try {
+            runConcurrently(THREADS, thread -> {
+                for (int i = thread; i < users.size(); i += THREADS) {
+                    userService.addUserToFriends(users.get(i).getId(), hub.getId());
+                }
+            });
+            assertTrue(eventPipeline.flush(Duration.ofSeconds(5)));
+        } finally {
+            eventPipeline.close();
+        }
+
+        assertEquals(users.size(), friendCounts.get(hub.getId()));
+        for (User user : users) {
+            assertEquals(1, friendCounts.get(user.getId()));
+        }
+        assertArrayEquals(new int[]{hub.getId()}, friendCounts.top(1));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.events.BackpressurePolicy;
+import ru.yandex.practicum.filmorate.events.EventPipeline;
+import ru.yandex.practicum.filmorate.events.EventProperties;
+import ru.yandex.practicum.filmorate.http.ViewVersions;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.social.FriendCounts;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.Concurrency.runConcurrently;
+
+class InMemoryStorageConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 1_000;
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+    }
+
+    @Test
+    void shouldAllocateUniqueIdsUnderContention() throws Exception {
+        Set<Integer> filmIds = ConcurrentHashMap.newKeySet();
+        Set<Integer> userIds = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                filmIds.add(filmStorage.addFilm(TestData.film()).getId());
+                userIds.add(userStorage.addUser(TestData.user()).getId());
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, filmIds.size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, userIds.size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, filmStorage.getAllFilms().size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, userStorage.getAllUsers().size());
+    }
+
+    @Test
+    void shouldNotLoseConcurrentLikes() throws Exception {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            films.add(filmStorage.addFilm(TestData.film()));
+        }
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Film film = films.get(i % films.size());
+                assertTrue(filmStorage.addLike(film.getId(), thread * OPERATIONS_PER_THREAD + i));
+            }
+        });
+
+        int likesPerFilm = THREADS * OPERATIONS_PER_THREAD / films.size();
+        for (Film film : filmStorage.getPopularFilms(films.size())) {
+            assertEquals(likesPerFilm, film.getLikedByUsers().size());
+        }
+        assertEquals(films.size(), filmStorage.getPopularFilms(films.size()).size());
+    }
+
+    @Test
+    void shouldAcceptOnlyOneOfRacingLikes() throws Exception {
+        Film film = filmStorage.addFilm(TestData.film());
+        AtomicInteger accepted = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            for (int userId = 1; userId <= OPERATIONS_PER_THREAD; userId++) {
+                if (filmStorage.addLike(film.getId(), userId)) {
+                    accepted.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(OPERATIONS_PER_THREAD, accepted.get());
+        assertEquals(OPERATIONS_PER_THREAD, filmStorage.getFilmById(film.getId()).getLikedByUsers().size());
+    }
+
+    @Test
+    void shouldKeepFriendshipSymmetricForConcurrentRequests() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventPipeline eventPipeline =
+                new EventPipeline(new EventProperties(4, 1024, 64, BackpressurePolicy.BLOCK), meterRegistry);
+        UserService userService =
+                new UserService(userStorage, eventPipeline, new FriendCounts(), new ViewVersions(), meterRegistry);
+        User hub = userStorage.addUser(TestData.user());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < THREADS * 100; i++) {
+            users.add(userStorage.addUser(TestData.user()));
+        }
+
+        try {
+            runConcurrently(THREADS, thread -> {
+                for (int i = thread; i < users.size(); i += THREADS) {
+                    userService.addUserToFriends(users.get(i).getId(), hub.getId());
+                }
+            });
+        } finally {
+            eventPipeline.close();
+        }
+
+        assertEquals(users.size(), userStorage.getUserById(hub.getId()).getFriends().size());
+        for (User user : users) {
+            assertEquals(IntSet.of(hub.getId()), userStorage.getUserById(user.getId()).getFriends());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.exception.ResourceNotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.JdbcFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.JdbcUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("jdbc")
+@Transactional
+class JdbcStorageTest {
+
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void shouldUseJdbcStoragesInJdbcProfile() {
+        assertInstanceOf(JdbcFilmStorage.class, unwrap(filmStorage));
+        assertInstanceOf(JdbcUserStorage.class, unwrap(userStorage));
+    }
+
+    @Test
+    void shouldImportFilmsWithLikesInBatches() {
+        List<User> users = userStorage.addUsers(IntStream.range(0, 30).mapToObj(TestData::user).toList());
+        List<Film> films = filmStorage.addFilms(IntStream.range(0, 2_500)
+                .mapToObj(i -> TestData.film(i).withLikedByUsers(
+                        IntSet.of(users.get(i % users.size()).getId(), users.getFirst().getId())))
+                .toList());
+
+        assertEquals(2_500, films.stream().map(Film::getId).distinct().count());
+        Film last = filmStorage.getFilmById(films.getLast().getId());
+        assertEquals(films.getLast(), last);
+        assertEquals(films.subList(10, 20), filmStorage.getFilms(films.get(9).getId(), 10));
+        try (Stream<Film> stream = filmStorage.streamFilms()) {
+            assertEquals(2_500, stream.filter(film -> film.getLikedByUsers().size() > 0).count());
+        }
+    }
+
+    @Test
+    void shouldMatchInMemoryPopularFilms() {
+        InMemoryFilmStorage expected = new InMemoryFilmStorage();
+        List<User> users = userStorage.addUsers(IntStream.range(0, 40).mapToObj(TestData::user).toList());
+        List<Film> films = filmStorage.addFilms(IntStream.range(0, 60).mapToObj(TestData::film).toList());
+        IntStream.range(0, 60).forEach(i -> expected.addFilm(TestData.film(i)));
+        int offset = films.getFirst().getId() - 1;
+
+        Random random = new Random(5);
+        for (int i = 0; i < 1_500; i++) {
+            int filmNumber = random.nextInt(films.size()) + 1;
+            int userId = users.get(random.nextInt(users.size())).getId();
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.deleteLike(filmNumber, userId), filmStorage.deleteLike(filmNumber + offset, userId));
+            } else {
+                assertEquals(expected.addLike(filmNumber, userId), filmStorage.addLike(filmNumber + offset, userId));
+            }
+        }
+
+        for (int count : new int[]{1, 10, 60, 100}) {
+            List<Integer> expectedIds = expected.getPopularFilms(count).stream().map(film -> film.getId() + offset).toList();
+            List<Film> actual = filmStorage.getPopularFilms(count);
+            assertEquals(expectedIds, actual.stream().map(Film::getId).toList());
+            for (Film film : actual) {
+                assertEquals(expected.getFilmById(film.getId() - offset).getLikedByUsers(), film.getLikedByUsers());
+            }
+        }
+    }
+
+    @Test
+    void shouldFindFilmsByReleaseDateAndDuration() {
+        List<Film> films = filmStorage.addFilms(IntStream.range(0, 40).mapToObj(TestData::film).toList());
+        int afterId = films.getFirst().getId() - 1;
+        FilmFilter filter = new FilmFilter(LocalDate.of(2000, 1, 5), LocalDate.of(2000, 1, 30), null, 110);
+
+        List<Film> page = filmStorage.findFilms(filter, afterId, 5);
+        List<Film> rest = filmStorage.findFilms(filter, page.getLast().getId(), 100);
+
+        assertEquals(films.subList(4, 9).stream().map(Film::getId).toList(), page.stream().map(Film::getId).toList());
+        assertEquals(films.subList(9, 21).stream().map(Film::getId).toList(), rest.stream().map(Film::getId).toList());
+        assertEquals(films.subList(35, 40).stream().map(Film::getId).toList(), filmStorage.findFilms(
+                new FilmFilter(null, null, 125, null), afterId, 100).stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void shouldKeepLikesOnUpdate() {
+        User user = userStorage.addUser(TestData.user(1));
+        Film film = filmStorage.addFilm(TestData.film(1));
+        filmStorage.addLike(film.getId(), user.getId());
+        assertEquals(IntSet.of(film.getId()), filmStorage.getLikedFilmIds(user.getId()));
+
+        Film update = TestData.film(2).withId(film.getId());
+        Film updated = filmStorage.updateFilm(update);
+        assertEquals(update.withLikedByUsers(IntSet.of(user.getId())), updated);
+        assertEquals(updated, filmStorage.getFilmById(film.getId()));
+        assertEquals(IntSet.of(film.getId()), filmStorage.getLikedFilmIds(user.getId()));
+        assertEquals(IntSet.of(user.getId()), filmStorage.getPopularFilms(1).getFirst().getLikedByUsers());
+        Film missing = TestData.film(3).withId(-1);
+        assertThrows(ResourceNotFoundException.class, () -> filmStorage.updateFilm(missing));
+        assertThrows(ResourceNotFoundException.class, () -> filmStorage.addLike(-1, user.getId()));
+    }
+
+    @Test
+    void shouldKeepFriendshipSymmetricAndFindCommonFriends() {
+        List<User> users = userStorage.addUsers(IntStream.range(0, 6).mapToObj(TestData::user).toList());
+        int first = users.get(0).getId();
+        int second = users.get(1).getId();
+        for (User friend : users.subList(2, 6)) {
+            assertTrue(userStorage.addFriend(first, friend.getId()));
+        }
+        assertTrue(userStorage.addFriend(users.get(3).getId(), second));
+        assertTrue(userStorage.addFriend(second, users.get(5).getId()));
+        assertFalse(userStorage.addFriend(users.get(2).getId(), first));
+
+        assertEquals(List.of(users.get(3), users.get(5)).stream().map(User::getId).toList(),
+                userService.getCommonFriends(first, second).stream().map(User::getId).toList());
+        assertEquals(4, userService.getFriends(first).size());
+        assertTrue(userStorage.getUserById(users.get(2).getId()).getFriends().contains(first));
+
+        assertTrue(userStorage.deleteFriend(users.get(3).getId(), first));
+        assertFalse(userStorage.deleteFriend(first, users.get(3).getId()));
+        assertEquals(List.of(users.get(5).getId()),
+                userService.getCommonFriends(second, first).stream().map(User::getId).toList());
+        assertThrows(ResourceNotFoundException.class, () -> userService.getCommonFriends(first, -1));
+    }
+
+    @Test
+    void shouldIgnoreFriendsFromUserBody() {
+        User friend = userStorage.addUser(TestData.user(1));
+        User user = userStorage.addUser(TestData.user(2).withFriends(IntSet.of(friend.getId(), -1)));
+
+        assertTrue(user.getFriends().isEmpty());
+        assertTrue(userStorage.getUserById(friend.getId()).getFriends().isEmpty());
+        assertTrue(userStorage.addFriend(friend.getId(), user.getId()));
+
+        User other = userStorage.addUser(TestData.user(3));
+        User updated = userStorage.updateUser(user.withLogin("renamed").withFriends(IntSet.of(other.getId(), -1)));
+        assertEquals(IntSet.of(friend.getId()), updated.getFriends());
+        assertEquals(updated, userStorage.getUserById(user.getId()));
+        assertEquals(IntSet.of(user.getId()), userStorage.getUserById(friend.getId()).getFriends());
+        assertTrue(userStorage.getUserById(other.getId()).getFriends().isEmpty());
+    }
+
+    @Test
+    void shouldLoadUsersAndFilmsByIdsInRequestedOrder() {
+        List<User> users = userStorage.addUsers(IntStream.range(0, 5).mapToObj(TestData::user).toList());
+        List<Film> films = filmStorage.addFilms(IntStream.range(0, 3).mapToObj(TestData::film).toList());
+        int[] userIds = {users.get(3).getId(), -1, users.get(0).getId(), users.get(4).getId()};
+
+        assertEquals(List.of(users.get(3), users.get(0), users.get(4)), userStorage.getUsersByIds(userIds));
+        assertEquals(List.of(films.get(2), films.get(0)),
+                filmStorage.getFilmsByIds(new int[]{films.get(2).getId(), films.get(0).getId()}));
+        assertTrue(userStorage.getUsersByIds(new int[0]).isEmpty());
+    }
+
+    @Test
+    void shouldApplyLikeAndFriendBatchesWithOneCounterUpdate() {
+        List<User> users = userStorage.addUsers(IntStream.range(0, 4).mapToObj(TestData::user).toList());
+        int[] ids = users.stream().mapToInt(User::getId).toArray();
+        Film film = filmStorage.addFilm(TestData.film(0));
+        filmStorage.addLike(film.getId(), ids[0]);
+
+        boolean[] liked = filmStorage.updateLikes(film.getId(),
+                new int[]{ids[0], ids[1], ids[1], ids[2], ids[0]}, new boolean[]{true, true, false, true, false});
+
+        assertArrayEquals(new boolean[]{false, true, true, true, true}, liked);
+        assertEquals(IntSet.of(ids[2]), filmStorage.getFilmById(film.getId()).getLikedByUsers());
+        assertEquals(film.getId(), filmStorage.getPopularFilms(1).getFirst().getId());
+
+        boolean[] friends = userStorage.updateFriends(ids[0],
+                new int[]{ids[1], ids[2], ids[1], ids[3]}, new boolean[]{true, true, false, false});
+
+        assertArrayEquals(new boolean[]{true, true, true, false}, friends);
+        assertEquals(IntSet.of(ids[2]), userStorage.getUserById(ids[0]).getFriends());
+        assertEquals(IntSet.of(ids[0]), userStorage.getUserById(ids[2]).getFriends());
+        assertThrows(ResourceNotFoundException.class,
+                () -> userStorage.updateFriends(ids[0], new int[]{-1}, new boolean[]{true}));
+    }
+
+    private Object unwrap(Object bean) {
+        return AopTestUtils.getUltimateTargetObject(bean);
+    }
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ShardedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.ShardedUserStorage;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedStorageTest {
+
+    private static final int SHARDS = 4;
+
+    private ShardedFilmStorage filmStorage;
+    private ShardedUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new ShardedFilmStorage(SHARDS);
+        userStorage = new ShardedUserStorage(SHARDS);
+    }
+
+    @Test
+    void shouldMatchUnshardedStorage() {
+        InMemoryFilmStorage expected = new InMemoryFilmStorage();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            Film film = TestData.film(LocalDate.of(1990 + random.nextInt(30), 1, 1), 60 + random.nextInt(120));
+            Film copy = TestData.film(film.getReleaseDate(), film.getDuration());
+            assertEquals(expected.addFilm(copy).getId(), filmStorage.addFilm(film).getId());
+        }
+        for (int i = 0; i < 1_000; i++) {
+            int filmId = random.nextInt(200) + 1;
+            int userId = random.nextInt(50) + 1;
+            assertEquals(expected.addLike(filmId, userId), filmStorage.addLike(filmId, userId));
+        }
+
+        assertEquals(ids(expected.getAllFilms()), ids(filmStorage.getAllFilms()));
+        assertEquals(ids(expected.getFilms(57, 20)), ids(filmStorage.getFilms(57, 20)));
+        assertEquals(ids(expected.getPopularFilms(15)), ids(filmStorage.getPopularFilms(15)));
+        FilmFilter filter = new FilmFilter(LocalDate.of(2000, 1, 1), LocalDate.of(2010, 1, 1), 90, 150);
+        assertEquals(ids(expected.findFilms(filter, 30, 10)), ids(filmStorage.findFilms(filter, 30, 10)));
+        for (int userId = 1; userId <= 50; userId++) {
+            assertEquals(expected.getLikedFilmIds(userId), filmStorage.getLikedFilmIds(userId));
+        }
+        assertEquals(200, filmStorage.countFilms());
+    }
+
+    @Test
+    void shouldKeepBatchIdsInListOrder() {
+        userStorage.addUser(TestData.user());
+        List<User> users = userStorage.addUsers(List.of(TestData.user(), TestData.user(), TestData.user()));
+
+        for (int i = 1; i < users.size(); i++) {
+            assertTrue(users.get(i).getId() > users.get(i - 1).getId());
+            assertSame(users.get(i), userStorage.getUserById(users.get(i).getId()));
+        }
+        assertEquals(4, userStorage.countUsers());
+    }
+
+    @Test
+    void shouldKeepCrossShardFriendshipSymmetricWithoutDeadlocks() {
+        int users = 64;
+        for (int i = 0; i < users; i++) {
+            userStorage.addUser(TestData.user());
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < 8; thread++) {
+                    futures.add(executor.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < 20_000; i++) {
+                            int userId = random.nextInt(users) + 1;
+                            int friendId = random.nextInt(users) + 1;
+                            switch (random.nextInt(3)) {
+                                case 0 -> userStorage.addFriend(userId, friendId);
+                                case 1 -> userStorage.deleteFriend(friendId, userId);
+                                default -> userStorage.updateFriends(userId, random.ints(5, 1, users + 1).toArray(),
+                                        new boolean[]{true, random.nextBoolean(), false, true, random.nextBoolean()});
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        });
+
+        for (User user : userStorage.getAllUsers()) {
+            user.getFriends().forEach(friendId -> assertTrue(
+                    userStorage.getUserById(friendId).getFriends().contains(user.getId())));
+        }
+        User first = userStorage.getUserById(1);
+        User second = userStorage.getUserById(2);
+        IntSet common = first.getFriends().intersect(second.getFriends());
+        assertEquals(common.size(), userStorage.getCommonFriends(1, 2).size());
+    }
+
+    private static List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+}
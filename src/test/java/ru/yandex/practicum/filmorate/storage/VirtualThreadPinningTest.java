@@ -0,0 +1,139 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.cache.CachingUserStorage;
+import ru.yandex.practicum.filmorate.storage.film.WalFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.wal.FsyncPolicy;
+import ru.yandex.practicum.filmorate.storage.wal.WalProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Блокирующие пути хранилищ не должны закреплять виртуальный поток за несущим:
+ * события jdk.VirtualThreadPinned собираются через JFR, пока хранилища нагружаются из виртуальных потоков.
+ */
+class VirtualThreadPinningTest {
+
+    private static final int THREADS = 32;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldDetectPinningInsideSynchronized() throws Exception {
+        Object monitor = new Object();
+
+        List<RecordedEvent> events = pinnedEvents(() -> {
+            synchronized (monitor) {
+                Thread.sleep(1);
+            }
+        });
+
+        assertFalse(events.isEmpty());
+    }
+
+    @Test
+    void shouldNotPinWhileWaitingForWalCommit() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        WalProperties properties = new WalProperties(directory, FsyncPolicy.ALWAYS, Duration.ofMillis(10), 64, 0, 2);
+        try (WalFilmStorage storage = WalFilmStorage.open(properties, objectMapper)) {
+            int filmId = storage.addFilm(TestData.film()).getId();
+
+            List<RecordedEvent> events = pinnedEvents(() -> {
+                int userId = (int) Thread.currentThread().threadId();
+                for (int i = 0; i < 20; i++) {
+                    storage.addLike(filmId, userId);
+                    storage.deleteLike(filmId, userId);
+                }
+            });
+
+            assertTrue(events.isEmpty(), "Закреплений виртуальных потоков: " + events.size());
+        }
+    }
+
+    @Test
+    void shouldNotPinWhileCacheLoadsFromSlowStorage() throws Exception {
+        CachingUserStorage storage = new CachingUserStorage(new InMemoryUserStorage() {
+            @Override
+            public User getUserById(int id) {
+                pause();
+                return super.getUserById(id);
+            }
+
+            @Override
+            public List<User> getUsersByIds(int[] ids) {
+                pause();
+                return super.getUsersByIds(ids);
+            }
+        }, Caffeine.newBuilder().maximumSize(100).buildAsync());
+        int userId = storage.addUser(TestData.user()).getId();
+        int friendId = storage.addUser(TestData.user()).getId();
+
+        List<RecordedEvent> events = pinnedEvents(() -> {
+            for (int i = 0; i < 20; i++) {
+                storage.getUserById(userId);
+                storage.getUsersByIds(new int[]{userId, friendId});
+                storage.updateUser(storage.getUserById(friendId));
+            }
+        });
+
+        assertTrue(events.isEmpty(), "Закреплений виртуальных потоков: " + events.size());
+    }
+
+    private static List<RecordedEvent> pinnedEvents(Task task) throws Exception {
+        List<RecordedEvent> events = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", events::add);
+            recording.startAsync();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        task.run();
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            recording.stop();
+        }
+        return events;
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
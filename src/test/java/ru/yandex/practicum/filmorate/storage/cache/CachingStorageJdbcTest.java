@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "filmorate.storage.cache.enabled=true")
+@ActiveProfiles("jdbc")
+@Transactional
+class CachingStorageJdbcTest {
+
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldSeeFriendshipChangesThroughCache() {
+        List<User> users = userStorage.addUsers(IntStream.range(0, 3).mapToObj(TestData::user).toList());
+        int first = users.get(0).getId();
+        int second = users.get(1).getId();
+        int third = users.get(2).getId();
+
+        assertInstanceOf(CachingUserStorage.class, userStorage);
+        assertTrue(userService.getFriends(first).isEmpty());
+        userService.addUserToFriends(first, second);
+        userService.addUserToFriends(third, first);
+
+        assertEquals(List.of(second, third), userService.getFriends(first).stream().map(User::getId).toList());
+        assertEquals(List.of(first), userService.getCommonFriends(second, third).stream().map(User::getId).toList());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit")
+                .functionCounter().count() > 0);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.exception.ResourceNotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingStorageTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger bulkLookups = new AtomicInteger();
+    private AsyncCache<Integer, User> cache;
+    private CachingUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        cache = Caffeine.newBuilder().maximumSize(100).recordStats().buildAsync();
+        userStorage = new CachingUserStorage(new InMemoryUserStorage() {
+            @Override
+            public User getUserById(int id) {
+                lookups.incrementAndGet();
+                return super.getUserById(id);
+            }
+
+            @Override
+            public List<User> getUsersByIds(int[] ids) {
+                bulkLookups.incrementAndGet();
+                return super.getUsersByIds(ids);
+            }
+        }, cache);
+        userStorage.addUsers(IntStream.range(0, 10).mapToObj(TestData::user).toList());
+    }
+
+    @Test
+    void shouldServeRepeatedFriendListsFromCache() {
+        for (int friendId = 2; friendId <= 10; friendId++) {
+            userStorage.addFriend(1, friendId);
+        }
+
+        assertEquals(9, userStorage.getFriends(1).size());
+        int afterFirstRead = lookups.get();
+        assertEquals(9, userStorage.getFriends(1).size());
+        assertEquals(List.of(1), userStorage.getCommonFriends(4, 5).stream().map(User::getId).toList());
+
+        assertEquals(afterFirstRead, lookups.get());
+        assertTrue(cache.synchronous().stats().hitCount() >= 10);
+    }
+
+    @Test
+    void shouldLoadMissingFriendsInOneBulkCall() {
+        for (int friendId = 2; friendId <= 10; friendId++) {
+            userStorage.addFriend(1, friendId);
+        }
+        userStorage.getUserById(5);
+        bulkLookups.set(0);
+
+        assertEquals(IntStream.rangeClosed(2, 10).boxed().toList(),
+                userStorage.getFriends(1).stream().map(User::getId).toList());
+        assertEquals(1, bulkLookups.get());
+        assertEquals(List.of(7), userStorage.getUsersByIds(new int[]{999, 7}).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldInvalidateBothUsersOnFriendshipChange() {
+        userStorage.getUserById(1);
+        userStorage.getUserById(2);
+        userStorage.getUserById(3);
+
+        assertTrue(userStorage.addFriend(1, 2));
+        int before = lookups.get();
+        userStorage.getUserById(1);
+        userStorage.getUserById(2);
+        userStorage.getUserById(3);
+
+        assertEquals(before + 2, lookups.get());
+    }
+
+    @Test
+    void shouldNotCacheMissingUsers() {
+        assertThrows(ResourceNotFoundException.class, () -> userStorage.getUserById(999));
+        assertThrows(ResourceNotFoundException.class, () -> userStorage.getUserById(999));
+        assertEquals(0, cache.synchronous().estimatedSize());
+    }
+}
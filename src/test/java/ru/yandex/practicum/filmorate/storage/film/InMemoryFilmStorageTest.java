@@ -0,0 +1,175 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryFilmStorageTest {
+
+    private InMemoryFilmStorage filmStorage;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+    }
+
+    @Test
+    void shouldMatchSortBasedPopularFilms() {
+        Random random = new Random(42);
+        List<Film> films = addFilms(200);
+
+        for (int i = 0; i < 5_000; i++) {
+            Film film = films.get(random.nextInt(films.size()));
+            int userId = random.nextInt(50) + 1;
+            if (random.nextInt(4) == 0) {
+                filmStorage.deleteLike(film.getId(), userId);
+            } else {
+                filmStorage.addLike(film.getId(), userId);
+            }
+        }
+
+        for (int count : new int[]{1, 10, 57, 200, 1_000}) {
+            assertEquals(sortBasedPopularFilms(count), filmStorage.getPopularFilms(count));
+        }
+    }
+
+    @Test
+    void shouldOrderFilmsWithEqualLikesById() {
+        List<Film> films = addFilms(3);
+        filmStorage.addLike(films.get(2).getId(), 1);
+        filmStorage.addLike(films.get(1).getId(), 1);
+
+        List<Film> popular = filmStorage.getPopularFilms(3);
+
+        assertEquals(List.of(films.get(1).getId(), films.get(2).getId(), films.get(0).getId()), ids(popular));
+    }
+
+    @Test
+    void shouldKeepLikesAndPopularityOnUpdate() {
+        List<Film> films = addFilms(2);
+        filmStorage.addLike(films.get(1).getId(), 1);
+
+        Film update = TestData.film().withId(films.get(1).getId()).withLikedByUsers(IntSet.of(5, 6, 7));
+        assertEquals(IntSet.of(1), filmStorage.updateFilm(update).getLikedByUsers());
+        assertEquals(IntSet.of(update.getId()), filmStorage.getLikedFilmIds(1));
+        assertTrue(filmStorage.getLikedFilmIds(5).isEmpty());
+        filmStorage.addLike(films.get(0).getId(), 2);
+        filmStorage.addLike(films.get(0).getId(), 3);
+
+        assertEquals(List.of(films.get(0).getId(), update.getId()), ids(filmStorage.getPopularFilms(2)));
+    }
+
+    @Test
+    void shouldKeepLikedFilmsByUserInSyncWithFilms() {
+        Random random = new Random(7);
+        List<Film> films = addFilms(50);
+
+        for (int i = 0; i < 5_000; i++) {
+            Film film = films.get(random.nextInt(films.size()));
+            int userId = random.nextInt(30) + 1;
+            switch (random.nextInt(10)) {
+                case 0 -> {
+                    filmStorage.updateFilm(TestData.film().withId(film.getId())
+                            .withLikedByUsers(IntSet.of(random.ints(5, 1, 31).toArray())));
+                }
+                case 1 -> filmStorage.updateLikes(film.getId(), new int[]{userId}, new boolean[]{random.nextBoolean()});
+                case 2, 3 -> filmStorage.deleteLike(film.getId(), userId);
+                default -> filmStorage.addLike(film.getId(), userId);
+            }
+        }
+
+        for (int userId = 1; userId <= 31; userId++) {
+            int user = userId;
+            int[] expected = filmStorage.getAllFilms().stream()
+                    .filter(film -> film.getLikedByUsers().contains(user))
+                    .mapToInt(Film::getId)
+                    .toArray();
+            assertArrayEquals(expected, filmStorage.getLikedFilmIds(userId).toArray());
+        }
+    }
+
+    @Test
+    void shouldMatchLinearScanForRangeFilters() {
+        Random random = new Random(17);
+        List<Film> films = addFilms(300);
+        films.replaceAll(film -> filmStorage.updateFilm(film
+                .withReleaseDate(LocalDate.of(2000, 1, 1).plusDays(random.nextInt(365)))
+                .withDuration(random.nextInt(180) + 1)));
+        for (int i = 0; i < 100; i++) {
+            int index = random.nextInt(films.size());
+            films.set(index, filmStorage.updateFilm(films.get(index).withDuration(random.nextInt(180) + 1)));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = random.nextBoolean() ? LocalDate.of(2000, 1, 1).plusDays(random.nextInt(365)) : null;
+            LocalDate to = random.nextBoolean() && from != null ? from.plusDays(random.nextInt(200)) : null;
+            Integer minDuration = random.nextBoolean() ? random.nextInt(180) : null;
+            Integer maxDuration = random.nextBoolean() ? random.nextInt(180) + (minDuration == null ? 0 : minDuration) : null;
+            FilmFilter filter = new FilmFilter(from, to, minDuration, maxDuration);
+            int afterId = random.nextInt(films.size());
+            int limit = random.nextInt(50) + 1;
+
+            List<Film> expected = filmStorage.getAllFilms().stream()
+                    .filter(film -> film.getId() > afterId && filter.matches(film))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+            assertEquals(expected, filmStorage.findFilms(filter, afterId, limit), filter.toString());
+        }
+    }
+
+    @Test
+    void shouldNotLikeTwice() {
+        Film film = addFilms(1).getFirst();
+
+        assertTrue(filmStorage.addLike(film.getId(), 1));
+        assertFalse(filmStorage.addLike(film.getId(), 1));
+        assertTrue(filmStorage.deleteLike(film.getId(), 1));
+        assertFalse(filmStorage.deleteLike(film.getId(), 1));
+    }
+
+    @Test
+    void shouldPublishNewVersionInsteadOfChangingReadFilm() {
+        Film film = addFilms(1).getFirst();
+        Film before = filmStorage.getFilmById(film.getId());
+
+        filmStorage.addLike(film.getId(), 1);
+        filmStorage.updateLikes(film.getId(), new int[]{2, 3}, new boolean[]{true, true});
+        Film after = filmStorage.getFilmById(film.getId());
+
+        assertTrue(before.getLikedByUsers().isEmpty());
+        assertEquals(IntSet.of(1, 2, 3), after.getLikedByUsers());
+        assertThrows(UnsupportedOperationException.class, () -> after.getLikedByUsers().add(4));
+    }
+
+    private static List<Integer> ids(List<Film> films) {
+        return films.stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Film> sortBasedPopularFilms(int count) {
+        return filmStorage.getAllFilms().stream()
+                .sorted(Comparator.comparingInt(Film::getId))
+                .sorted((o1, o2) -> o2.getLikedByUsers().size() - o1.getLikedByUsers().size())
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    private List<Film> addFilms(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> filmStorage.addFilm(TestData.film()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldRestoreFilmsFromManySegmentsInParallel() throws IOException {
+        BinarySnapshot<Film> snapshot = new BinarySnapshot<>(new FilmSnapshotCodec(), 7);
+        Path file = directory.resolve("films.snapshot");
+        List<Film> films = IntStream.rangeClosed(1, 100).mapToObj(this::createFilm).toList();
+
+        snapshot.write(file, 42, films.iterator());
+        Queue<Film> restored = new ConcurrentLinkedQueue<>();
+        long segment = snapshot.read(file, 4, restored::add);
+
+        assertEquals(42, segment);
+        List<Film> sorted = new ArrayList<>(restored);
+        sorted.sort(Comparator.comparingInt(Film::getId));
+        assertEquals(films, sorted);
+    }
+
+    @Test
+    void shouldKeepMissingFieldsOfUser() throws IOException {
+        BinarySnapshot<User> snapshot = new BinarySnapshot<>(new UserSnapshotCodec());
+        Path file = directory.resolve("users.snapshot");
+        User user = User.builder()
+                .id(5)
+                .login("логин")
+                .friends(IntSet.of(1, 9))
+                .build();
+
+        snapshot.write(file, 3, List.of(user).iterator());
+        List<User> restored = new ArrayList<>();
+        snapshot.read(file, 1, restored::add);
+
+        assertEquals(List.of(user), restored);
+    }
+
+    @Test
+    void shouldReturnZeroWhenSnapshotIsMissing() throws IOException {
+        BinarySnapshot<Film> snapshot = new BinarySnapshot<>(new FilmSnapshotCodec());
+
+        assertEquals(0, snapshot.read(directory.resolve("films.snapshot"), 1, film -> fail()));
+    }
+
+    @Test
+    void shouldRejectTruncatedSnapshot() throws IOException {
+        BinarySnapshot<Film> snapshot = new BinarySnapshot<>(new FilmSnapshotCodec(), 10);
+        Path file = directory.resolve("films.snapshot");
+        snapshot.write(file, 1, IntStream.rangeClosed(1, 30).mapToObj(this::createFilm).iterator());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        IOException exception = assertThrows(IOException.class, () -> snapshot.read(file, 2, film -> {
+        }));
+        assertTrue(exception.getMessage().contains("поврежден"), exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectSnapshotWithBrokenLengths() throws IOException {
+        BinarySnapshot<User> snapshot = new BinarySnapshot<>(new UserSnapshotCodec());
+        Path file = directory.resolve("users.snapshot");
+        User user = User.builder()
+                .id(5)
+                .login("логин")
+                .friends(IntSet.of(1, 9))
+                .build();
+        // заголовок, id, день рождения, пустой email, логин, пустое имя
+        long friendsOffset = 16 + 4 + 8 + 4 + 4 + "логин".getBytes(StandardCharsets.UTF_8).length + 4;
+
+        for (int length : new int[]{-2, Integer.MAX_VALUE, 3}) {
+            snapshot.write(file, 1, List.of(user).iterator());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(length).flip(), friendsOffset);
+            }
+
+            IOException exception = assertThrows(IOException.class, () -> snapshot.read(file, 1, restored -> {
+            }));
+            assertTrue(exception.getMessage().contains("поврежден"), exception.getMessage());
+        }
+    }
+
+    private Film createFilm(int id) {
+        Film film = Film.builder()
+                .id(id)
+                .name("Фильм " + id)
+                .description(id % 3 == 0 ? null : "Описание " + id)
+                .releaseDate(LocalDate.of(2000, 1, 1).plusDays(id))
+                .duration(90 + id)
+                .likedByUsers(IntSet.of(IntStream.range(0, id % 5).map(i -> i * 11 + id).toArray()))
+                .build();
+        return film;
+    }
+}
@@ -0,0 +1,187 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.TestData;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.WalFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.WalUserStorage;
+import ru.yandex.practicum.filmorate.util.IntSet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalStorageTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldRestoreFilmsAndLikesAfterRestart() throws IOException {
+        List<Film> expected;
+        try (WalFilmStorage storage = filmStorage(FsyncPolicy.ALWAYS, 0)) {
+            Film first = storage.addFilm(TestData.film("Первый"));
+            Film second = storage.addFilm(TestData.film("Второй"));
+            storage.addLike(first.getId(), 1);
+            storage.addLike(first.getId(), 2);
+            storage.addLike(second.getId(), 1);
+            storage.deleteLike(first.getId(), 2);
+            Film update = TestData.film("Второй, исправленный").withId(second.getId());
+            storage.updateFilm(update);
+            storage.addLike(second.getId(), 3);
+            expected = storage.getAllFilms();
+        }
+
+        try (WalFilmStorage storage = filmStorage(FsyncPolicy.ALWAYS, 0)) {
+            assertEquals(expected, storage.getAllFilms());
+            assertEquals(IntSet.of(1), storage.getFilmById(expected.getFirst().getId()).getLikedByUsers());
+            assertEquals(IntSet.of(1, 3), storage.getFilmById(expected.getLast().getId()).getLikedByUsers());
+            assertEquals(expected.getLast().getId(), storage.getPopularFilms(1).getFirst().getId());
+            assertEquals(expected.getLast().getId() + 1, storage.addFilm(TestData.film("Новый")).getId());
+        }
+    }
+
+    @Test
+    void shouldNotPublishChangesThatWereNotLogged() throws IOException {
+        WalFilmStorage storage = filmStorage(FsyncPolicy.ALWAYS, 0);
+        Film film = storage.addFilm(TestData.film());
+        storage.addLike(film.getId(), 1);
+        storage.close();
+
+        assertThrows(IllegalStateException.class, () -> storage.addLike(film.getId(), 2));
+        assertThrows(IllegalStateException.class, () -> storage.updateLikes(film.getId(),
+                new int[]{1, 3}, new boolean[]{false, true}));
+        assertThrows(IllegalStateException.class, () -> storage.updateFilm(TestData.film(1).withId(film.getId())));
+        assertThrows(IllegalStateException.class, () -> storage.addFilm(TestData.film("Новый")));
+
+        assertEquals(List.of(film.withLikedByUsers(IntSet.of(1))), storage.getAllFilms());
+        assertEquals(IntSet.of(film.getId()), storage.getLikedFilmIds(1));
+        assertTrue(storage.getLikedFilmIds(3).isEmpty());
+    }
+
+    @Test
+    void shouldRestoreFromSnapshotAndWalTail() throws IOException {
+        List<User> expected;
+        try (WalUserStorage storage = userStorage(FsyncPolicy.INTERVAL, 0)) {
+            for (int i = 0; i < 10; i++) {
+                storage.addUser(TestData.user(i));
+            }
+            storage.addFriend(1, 2);
+            storage.addFriend(1, 3);
+            storage.snapshot();
+            storage.deleteFriend(1, 2);
+            storage.addFriend(4, 5);
+            expected = storage.getAllUsers();
+        }
+
+        assertTrue(Files.exists(directory.resolve("users.snapshot")));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("users-")).count());
+        }
+        try (WalUserStorage storage = userStorage(FsyncPolicy.INTERVAL, 0)) {
+            assertEquals(expected, storage.getAllUsers());
+            assertEquals(IntSet.of(3), storage.getUserById(1).getFriends());
+            assertEquals(IntSet.of(4), storage.getUserById(5).getFriends());
+        }
+    }
+
+    @Test
+    void shouldSnapshotAutomaticallyAndKeepConcurrentWrites() throws Exception {
+        int threads = 8;
+        int filmsPerThread = 200;
+        try (WalFilmStorage storage = filmStorage(FsyncPolicy.NONE, 500)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int userId = thread + 1;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < filmsPerThread; i++) {
+                        Film film = storage.addFilm(TestData.film("Фильм"));
+                        storage.addLike(film.getId(), userId);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+        }
+
+        assertTrue(Files.exists(directory.resolve("films.snapshot")));
+        try (WalFilmStorage storage = filmStorage(FsyncPolicy.NONE, 500)) {
+            List<Film> films = storage.getAllFilms();
+            assertEquals(threads * filmsPerThread, films.size());
+            assertTrue(films.stream().allMatch(film -> film.getLikedByUsers().size() == 1));
+        }
+    }
+
+    @Test
+    void shouldReadJsonSnapshotAndReplaceItWithBinary() throws IOException {
+        Film film = TestData.film("Из старого снимка").withId(7).withLikedByUsers(IntSet.of(1, 2));
+        JsonSnapshot.write(objectMapper, directory.resolve("films.snapshot.json"), 0, List.of(film).iterator());
+
+        try (WalFilmStorage storage = filmStorage(FsyncPolicy.ALWAYS, 0)) {
+            assertEquals(List.of(film), storage.getAllFilms());
+            storage.snapshot();
+        }
+
+        assertFalse(Files.exists(directory.resolve("films.snapshot.json")));
+        try (WalFilmStorage storage = filmStorage(FsyncPolicy.ALWAYS, 0)) {
+            assertEquals(List.of(film), storage.getAllFilms());
+            assertEquals(8, storage.addFilm(TestData.film("Новый")).getId());
+        }
+    }
+
+    @Test
+    void shouldIgnoreTornRecordAtEndOfSegment() throws IOException {
+        try (WalFilmStorage storage = filmStorage(FsyncPolicy.ALWAYS, 0)) {
+            storage.addFilm(TestData.film("Целый"));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            Path segment = files.filter(file -> file.getFileName().toString().endsWith(".wal"))
+                    .sorted()
+                    .findFirst()
+                    .orElseThrow();
+            Files.writeString(segment, "{\"type\":\"LIKE\",\"id\":1,\"oth", StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND);
+        }
+
+        try (WalFilmStorage storage = filmStorage(FsyncPolicy.ALWAYS, 0)) {
+            assertEquals(1, storage.getAllFilms().size());
+            assertTrue(storage.getFilmById(1).getLikedByUsers().isEmpty());
+        }
+    }
+
+    private WalFilmStorage filmStorage(FsyncPolicy fsync, long snapshotEvery) throws IOException {
+        return WalFilmStorage.open(properties(fsync, snapshotEvery), objectMapper);
+    }
+
+    private WalUserStorage userStorage(FsyncPolicy fsync, long snapshotEvery) throws IOException {
+        return WalUserStorage.open(properties(fsync, snapshotEvery), objectMapper);
+    }
+
+    private WalProperties properties(FsyncPolicy fsync, long snapshotEvery) {
+        return new WalProperties(directory, fsync, Duration.ofMillis(10), 64, snapshotEvery, 2);
+    }
+}
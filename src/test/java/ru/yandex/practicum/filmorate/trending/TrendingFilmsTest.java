@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.trending;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingFilmsTest {
+
+    private final MovableClock clock = new MovableClock();
+    private final TrendingFilms trending = new TrendingFilms(clock, 3);
+
+    @Test
+    void shouldRankFilmsByLikesWithinWindow() {
+        like(1, 5);
+        clock.advance(Duration.ofHours(2));
+        like(2, 3);
+        clock.advance(Duration.ofMinutes(30));
+        like(3, 2);
+        trending.record(2, -1);
+        like(4, 1);
+
+        trending.refresh();
+
+        assertArrayEquals(new int[]{2, 3, 4}, trending.getTop(TrendingWindow.HOUR, 10));
+        assertArrayEquals(new int[]{1, 2, 3}, trending.getTop(TrendingWindow.DAY, 10));
+        assertArrayEquals(new int[]{1, 2}, trending.getTop(TrendingWindow.WEEK, 2));
+    }
+
+    @Test
+    void shouldForgetLikesOutsideWindow() {
+        like(1, 2);
+        clock.advance(Duration.ofMinutes(61));
+        like(2, 1);
+        trending.refresh();
+        assertArrayEquals(new int[]{2}, trending.getTop(TrendingWindow.HOUR, 10));
+        assertArrayEquals(new int[]{1, 2}, trending.getTop(TrendingWindow.DAY, 10));
+
+        clock.advance(Duration.ofDays(2));
+        trending.refresh();
+        assertArrayEquals(new int[0], trending.getTop(TrendingWindow.DAY, 10));
+        assertArrayEquals(new int[]{1, 2}, trending.getTop(TrendingWindow.WEEK, 10));
+
+        clock.advance(Duration.ofDays(7));
+        like(2, 1);
+        trending.refresh();
+        assertArrayEquals(new int[]{2}, trending.getTop(TrendingWindow.WEEK, 10));
+    }
+
+    @Test
+    void shouldNotLoseConcurrentLikes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> like(1, 10_000));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        like(2, 39_999);
+        trending.refresh();
+
+        assertArrayEquals(new int[]{1, 2}, trending.getTop(TrendingWindow.HOUR, 10));
+    }
+
+    @Test
+    void shouldParseWindowLabels() {
+        assertEquals(TrendingWindow.HOUR, TrendingWindow.of("1h"));
+        assertEquals(TrendingWindow.WEEK, TrendingWindow.of("7d"));
+        assertThrows(ValidationException.class, () -> TrendingWindow.of("30d"));
+    }
+
+    private void like(int filmId, int times) {
+        for (int i = 0; i < times; i++) {
+            trending.record(filmId, 1);
+        }
+    }
+
+    private static class MovableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2024-04-01T10:15:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
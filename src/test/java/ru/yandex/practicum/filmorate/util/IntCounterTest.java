@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntCounterTest {
+
+    @Test
+    void shouldCountLikeHashMapAndRankTopKeys() {
+        Random random = new Random(5);
+        Map<Integer, Integer> expected = new HashMap<>();
+        IntCounter actual = new IntCounter(4);
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(3_000) + 1;
+            expected.merge(key, 1, Integer::sum);
+            actual.increment(key);
+        }
+
+        expected.forEach((key, count) -> assertEquals(count, actual.get(key)));
+        assertEquals(0, actual.get(3_001));
+        for (int k : new int[]{0, 1, 10, 2_999, 5_000}) {
+            int[] top = expected.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(k)
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+            assertArrayEquals(top, actual.top(k));
+        }
+    }
+
+    @Test
+    void shouldLeaveExcludedKeysOutOfTop() {
+        IntCounter counter = new IntCounter();
+        counter.exclude(2);
+        for (int i = 0; i < 5; i++) {
+            counter.increment(1);
+            counter.increment(2);
+        }
+        counter.increment(3);
+
+        assertArrayEquals(new int[]{1, 3}, counter.top(10));
+        assertEquals(0, counter.get(2));
+    }
+
+    @Test
+    void shouldRemoveKeysLikeHashMap() {
+        Random random = new Random(11);
+        Map<Integer, Integer> expected = new HashMap<>();
+        IntCounter actual = new IntCounter(4);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(500) + 1;
+            if (random.nextInt(3) == 0) {
+                Integer count = expected.remove(key);
+                assertEquals(count == null ? 0 : count, actual.remove(key));
+            } else {
+                expected.merge(key, 1, Integer::sum);
+                actual.increment(key);
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (int key = 1; key <= 500; key++) {
+            assertEquals(expected.getOrDefault(key, 0), actual.get(key));
+        }
+        assertEquals(expected.size(), actual.top(1_000).length);
+    }
+
+    @Test
+    void shouldRejectNonPositiveKeys() {
+        IntCounter counter = new IntCounter();
+
+        assertThrows(IllegalArgumentException.class, () -> counter.increment(0));
+        assertThrows(IllegalArgumentException.class, () -> counter.increment(-1));
+    }
+}
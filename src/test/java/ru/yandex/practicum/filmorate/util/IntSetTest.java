@@ -0,0 +1,206 @@
+package ru.yandex.practicum.filmorate.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+
+    @Test
+    void shouldBehaveLikeHashSet() {
+        Random random = new Random(7);
+        Set<Integer> expected = new HashSet<>();
+        IntSet actual = new IntSet();
+
+        for (int i = 0; i < 10_000; i++) {
+            int value = random.nextInt(500) - 250;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), actual.add(value));
+            } else {
+                assertEquals(expected.remove(value), actual.remove(value));
+            }
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.contains(value), actual.contains(value));
+        }
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), actual.toArray());
+    }
+
+    @Test
+    void shouldBehaveLikeHashSetWhenSplitIntoBlocks() {
+        Random random = new Random(13);
+        Set<Integer> expected = new HashSet<>();
+        IntSet actual = new IntSet();
+        IntSet frozen = IntSet.of();
+
+        for (int phase = 0; phase < 2; phase++) {
+            for (int i = 0; i < 100_000; i++) {
+                int value = random.nextInt(140_000) - 70_000;
+                if (random.nextInt(10) < (phase == 0 ? 8 : 2)) {
+                    assertEquals(expected.add(value), actual.add(value));
+                    frozen = frozen.with(value);
+                } else {
+                    assertEquals(expected.remove(value), actual.remove(value));
+                    frozen = frozen.without(value);
+                }
+                assertEquals(expected.size(), actual.size());
+                assertEquals(expected.contains(value), actual.contains(value));
+            }
+            int[] sorted = expected.stream().mapToInt(Integer::intValue).sorted().toArray();
+            assertArrayEquals(sorted, actual.toArray());
+            assertEquals(IntSet.of(sorted), frozen);
+            assertEquals(IntSet.of(sorted).hashCode(), frozen.hashCode());
+        }
+        List<Integer> remaining = new ArrayList<>(expected);
+        Collections.shuffle(remaining, random);
+        for (int value : remaining) {
+            assertTrue(actual.remove(value));
+            frozen = frozen.without(value);
+            assertFalse(actual.contains(value));
+            assertEquals(actual.size(), frozen.size());
+        }
+        assertTrue(actual.isEmpty());
+        assertTrue(frozen.isEmpty());
+    }
+
+    @Test
+    void shouldApplyBatchesLikeAddAllAndRemoveAll() {
+        Random random = new Random(17);
+        int[][] sizes = {{0, 10}, {10, 0}, {100, 100}, {5_000, 10}, {10, 5_000}, {20_000, 20_000}};
+        for (int[] size : sizes) {
+            int[] values = random.ints(size[0], 0, 30_000).toArray();
+            int[] batch = random.ints(size[1], 0, 30_000).toArray();
+            Set<Integer> union = new HashSet<>();
+            IntStream.of(values).forEach(union::add);
+            Set<Integer> difference = new HashSet<>(union);
+            IntStream.of(batch).forEach(union::add);
+            IntStream.of(batch).forEach(difference::remove);
+            IntSet original = IntSet.of(values);
+
+            assertArrayEquals(union.stream().mapToInt(Integer::intValue).sorted().toArray(),
+                    original.withAll(IntSet.of(batch)).toArray());
+            assertArrayEquals(difference.stream().mapToInt(Integer::intValue).sorted().toArray(),
+                    original.withoutAll(IntSet.of(batch)).toArray());
+            assertEquals(IntSet.of(values), original);
+        }
+        IntSet set = IntSet.of(1, 2, 3);
+        assertSame(set, set.withAll(IntSet.of(1, 3)));
+        assertSame(set, set.withoutAll(IntSet.of(4, 5)));
+        assertTrue(set.withAll(IntSet.of(4)).isFrozen());
+    }
+
+    @Test
+    void shouldApplyChangesInOrder() {
+        Random random = new Random(19);
+        for (int size : new int[]{0, 10, 5_000}) {
+            Set<Integer> expected = new HashSet<>();
+            random.ints(size, 0, 10_000).forEach(expected::add);
+            IntSet original = IntSet.of(expected.stream().mapToInt(Integer::intValue).toArray());
+            int[] values = random.ints(300, 0, 10_000).map(i -> random.nextBoolean() ? i % 20 : i).toArray();
+            boolean[] present = new boolean[values.length];
+            boolean[] expectedChanged = new boolean[values.length];
+            for (int i = 0; i < values.length; i++) {
+                present[i] = random.nextBoolean();
+                expectedChanged[i] = present[i] ? expected.add(values[i]) : expected.remove(values[i]);
+            }
+
+            boolean[] changed = new boolean[values.length];
+            IntSet updated = original.withChanges(values, present, changed);
+
+            assertArrayEquals(expectedChanged, changed);
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), updated.toArray());
+        }
+        IntSet set = IntSet.of(1, 2);
+        boolean[] changed = new boolean[3];
+        assertSame(set, set.withChanges(new int[]{3, 1, 3}, new boolean[]{true, true, false}, changed));
+        assertArrayEquals(new boolean[]{true, false, true}, changed);
+    }
+
+    @Test
+    void shouldAcceptOnlyStrictlySortedArrayAsIs() {
+        assertEquals(IntSet.of(1, 5, 9), IntSet.ofSorted(new int[]{1, 5, 9}));
+        assertEquals(IntSet.of(1, 5, 9), IntSet.ofSorted(new int[]{9, 1, 5, 5}));
+        assertTrue(IntSet.ofSorted(new int[0]).isEmpty());
+    }
+
+    @Test
+    void shouldIntersectLikeRetainAll() {
+        Random random = new Random(11);
+        int[][] sizes = {{0, 10}, {10, 10}, {100, 10_000}, {5_000, 5_000}, {3, 20_000}, {20_000, 1}};
+        for (int[] size : sizes) {
+            int[] left = random.ints(size[0], 0, 30_000).toArray();
+            int[] right = random.ints(size[1], 0, 30_000).toArray();
+            Set<Integer> expected = new HashSet<>();
+            IntStream.of(left).forEach(expected::add);
+            expected.retainAll(IntStream.of(right).boxed().toList());
+
+            IntSet actual = IntSet.of(left).intersect(IntSet.of(right));
+
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), actual.toArray());
+            assertEquals(actual, IntSet.of(right).intersect(IntSet.of(left)));
+        }
+    }
+
+    @Test
+    void shouldKeepJsonShapeOfIntegerSet() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Film film = Film.builder()
+                .name("Film")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .likedByUsers(IntSet.of(3, 1))
+                .build();
+
+        String json = mapper.writeValueAsString(film);
+        Film restored = mapper.readValue("{\"name\":\"Film\",\"likedByUsers\":[3,1,3]}", Film.class);
+
+        assertTrue(json.contains("\"likedByUsers\":[1,3]"), json);
+        assertEquals(IntSet.of(1, 3), restored.getLikedByUsers());
+    }
+
+    @Test
+    void shouldBuildNewFrozenSetsWithoutChangingOriginal() {
+        IntSet original = IntSet.of(1, 3);
+
+        IntSet added = original.with(2);
+        IntSet removed = added.without(1);
+
+        assertEquals(IntSet.of(1, 3), original);
+        assertEquals(IntSet.of(1, 2, 3), added);
+        assertEquals(IntSet.of(2, 3), removed);
+        assertSame(added, added.with(3));
+        assertSame(removed, removed.without(1));
+        assertTrue(removed.isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> removed.add(5));
+        assertTrue(IntSet.copyOf(removed).add(5));
+    }
+
+    @Test
+    void shouldTakeLessMemoryThanBoxedHashSet() {
+        for (int size : new int[]{10, 1_000, 10_000}) {
+            int[] values = IntStream.range(0, size).map(i -> 1_000 + i * 7).toArray();
+            Set<Integer> boxed = new HashSet<>();
+            for (int value : values) {
+                boxed.add(value);
+            }
+            IntSet primitive = IntSet.of(values);
+
+            long boxedBytes = GraphLayout.parseInstance(boxed).totalSize();
+            long primitiveBytes = GraphLayout.parseInstance(primitive).totalSize();
+            assertTrue(primitiveBytes * 5 < boxedBytes, "%d элементов: HashSet<Integer> %d байт, IntSet %d байт"
+                    .formatted(size, boxedBytes, primitiveBytes));
+        }
+    }
+}